@@ -0,0 +1,66 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How transfers pick their accounts: evenly across all accounts, or Zipfian so that a few hot accounts take most of
+ * the traffic (and most of the lock contention), as with merchant or settlement accounts in production.
+ */
+public enum AccountSkew {
+
+    UNIFORM,
+    ZIPFIAN;
+
+    /**
+     * Exponent used for {@link #ZIPFIAN}; 0.99 is the YCSB default.
+     */
+    public static final double ZIPF_EXPONENT = 0.99;
+
+    public AccountSampler sampler(int accounts) {
+        return switch (this) {
+            case UNIFORM -> () -> ThreadLocalRandom.current().nextInt(accounts);
+            case ZIPFIAN -> new ZipfianSampler(accounts, ZIPF_EXPONENT);
+        };
+    }
+
+    /**
+     * Returns account indexes in {@code [0, accounts)}.
+     */
+    @FunctionalInterface
+    public interface AccountSampler {
+        int next();
+    }
+
+    private static final class ZipfianSampler implements AccountSampler {
+
+        private final double[] cumulative;
+
+        private ZipfianSampler(int accounts, double exponent) {
+            cumulative = new double[accounts];
+            double sum = 0;
+            for (int rank = 1; rank <= accounts; rank++) {
+                sum += 1 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < accounts; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        @Override
+        public int next() {
+            double u = ThreadLocalRandom.current().nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
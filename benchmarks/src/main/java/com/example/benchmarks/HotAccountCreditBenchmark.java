@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.example.ledgerservice.LedgerServiceApplication;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.service.LedgerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credits from many payers into one hot account, the merchant settlement case. With {@code buckets=0} the hot
+ * account is a regular row and every credit queues on its lock; with {@code buckets=N} credits are spread over N
+ * bucket rows, so throughput should grow with N until the payer rows or the database become the limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class HotAccountCreditBenchmark {
+
+    private static final int PAYERS = 1000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"0", "1", "4", "16"})
+    public int buckets;
+
+    private ConfigurableApplicationContext context;
+    private LedgerService ledgerService;
+    private long[] payerIds;
+    private long hotAccountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LedgerServiceApplication.class)
+                .properties("spring.config.name=ledger-benchmark")
+                .run();
+        ledgerService = context.getBean(LedgerService.class);
+        payerIds = new long[PAYERS];
+        for (int i = 0; i < PAYERS; i++) {
+            payerIds[i] = ledgerService.createAccount(new CreateAccountRequest(INITIAL_BALANCE, null)).getId();
+        }
+        hotAccountId = ledgerService.createAccount(new CreateAccountRequest(BigDecimal.ZERO, buckets == 0 ? null : buckets)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void creditHotAccount() {
+        long payer = payerIds[ThreadLocalRandom.current().nextInt(PAYERS)];
+        ledgerService.applyTransfer(new LedgerTransferRequest(UUID.randomUUID().toString(), payer, hotAccountId, AMOUNT));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.benchmarks;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.service.TransferViewCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of stored idempotent responses: the {@link TransferViewCodec} binary format against the
+ * previous JSON round trip, with an {@link ObjectMapper} configured like the one Spring Boot provides. A response is
+ * 51 bytes in the binary format and about three times that as JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdempotencyCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private TransferView view;
+    private String json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        view = TransferView.builder()
+                .id(UUID.randomUUID())
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(Money.of(new BigDecimal("1234.56")))
+                .status(TransferStatus.COMPLETED)
+                .createdAt(LocalDateTime.now())
+                .build();
+        json = objectMapper.writeValueAsString(view);
+        binary = TransferViewCodec.encode(view);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(view);
+    }
+
+    @Benchmark
+    public TransferView deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(json, TransferView.class);
+    }
+
+    @Benchmark
+    public TransferView roundTrip() throws JsonProcessingException {
+        return objectMapper.readValue(objectMapper.writeValueAsString(view), TransferView.class);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return TransferViewCodec.encode(view);
+    }
+
+    @Benchmark
+    public TransferView binaryDeserialize() {
+        return TransferViewCodec.decode(binary);
+    }
+
+    @Benchmark
+    public TransferView binaryRoundTrip() {
+        return TransferViewCodec.decode(TransferViewCodec.encode(view));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.benchmarks;
+
+import com.example.transferservice.TransferServiceApplication;
+import com.example.transferservice.domain.IdempotencyKey;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.service.IdempotencyKeyCompactor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soak test of idempotency key lookups while keys keep expiring. Before every iteration another
+ * {@code expiredKeysPerIteration} expired keys are inserted, so over a run the table receives millions of keys.
+ * With {@code compaction=true} the {@link IdempotencyKeyCompactor} purges them before the iteration is measured and
+ * lookup latency should stay flat; with {@code compaction=false} the table only grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 10, time = 5)
+@Fork(1)
+@Threads(4)
+public class IdempotencyKeySoakBenchmark {
+
+    private static final int LIVE_KEYS = 10_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final String INSERT_SQL = "INSERT INTO idempotency_keys "
+            + "(idempotency_key, response_body, response_status_code, expiry_at, transfer_id) VALUES (?, ?, ?, ?, ?)";
+
+    @Param({"true", "false"})
+    public boolean compaction;
+
+    @Param({"200000"})
+    public int expiredKeysPerIteration;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private IdempotencyKeyCompactor compactor;
+    private UUID[] liveKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransferServiceApplication.class)
+                .properties("spring.config.name=transfer-benchmark")
+                .run("--transfer.idempotency.compaction.interval=PT1H",
+                        "--transfer.idempotency.compaction.chunk-size=10000",
+                        "--transfer.idempotency.compaction.max-rows-per-run=" + Integer.MAX_VALUE,
+                        "--transfer.idempotency.compaction.max-rows-per-second=" + Integer.MAX_VALUE);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        idempotencyKeyRepository = context.getBean(IdempotencyKeyRepository.class);
+        compactor = context.getBean(IdempotencyKeyCompactor.class);
+        liveKeys = new UUID[LIVE_KEYS];
+        for (int i = 0; i < LIVE_KEYS; i++) {
+            liveKeys[i] = UUID.randomUUID();
+        }
+        insertKeys(List.of(liveKeys), LocalDateTime.now().plusDays(1));
+    }
+
+    @Setup(Level.Iteration)
+    public void expireMoreKeys() {
+        List<UUID> expired = new ArrayList<>(expiredKeysPerIteration);
+        for (int i = 0; i < expiredKeysPerIteration; i++) {
+            expired.add(UUID.randomUUID());
+        }
+        insertKeys(expired, LocalDateTime.now().minusMinutes(1));
+        if (compaction) {
+            compactor.compact();
+        }
+        System.out.printf("%nidempotency_keys rows: %d%n", idempotencyKeyRepository.count());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<IdempotencyKey> lookupLiveKey() {
+        return idempotencyKeyRepository.findById(liveKeys[ThreadLocalRandom.current().nextInt(LIVE_KEYS)]);
+    }
+
+    private void insertKeys(List<UUID> keys, LocalDateTime expiryAt) {
+        Timestamp expiry = Timestamp.valueOf(expiryAt);
+        for (int start = 0; start < keys.size(); start += INSERT_BATCH) {
+            List<UUID> batch = keys.subList(start, Math.min(start + INSERT_BATCH, keys.size()));
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, key) -> {
+                statement.setObject(1, key);
+                statement.setString(2, "{}");
+                statement.setInt(3, 200);
+                statement.setTimestamp(4, expiry);
+                statement.setObject(5, UUID.randomUUID());
+            });
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmarks;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.client.LedgerTransferBatcher;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LedgerServiceClient#postTransfer} from 64 threads against a stub ledger that takes {@code ledgerLatencyMillis}
+ * per HTTP request, whether it carries one posting or a batch. With {@code batching=true} the postings are coalesced
+ * by a {@link LedgerTransferBatcher}, trading up to {@code lingerMillis} of added latency for fewer round trips.
+ * The client is used without Spring, so the circuit breaker and concurrency limiter are not involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class LedgerClientBatchingBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"false", "true"})
+    public boolean batching;
+
+    @Param({"2"})
+    public int ledgerLatencyMillis;
+
+    @Param({"1"})
+    public int lingerMillis;
+
+    private DisposableServer ledgerStub;
+    private LedgerTransferBatcher batcher;
+    private LedgerServiceClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Duration latency = Duration.ofMillis(ledgerLatencyMillis);
+        ledgerStub = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .post("/ledger/transfer", (request, response) -> request.receive().then()
+                                .then(Mono.delay(latency))
+                                .then(response.status(200).send()))
+                        .post("/ledger/transfers:batch", (request, response) -> request.receive().aggregate().asString()
+                                .delayElement(latency)
+                                .flatMap(body -> response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just(appliedOutcomes(body))).then())))
+                .bindNow();
+
+        WebClient webClient = WebClient.create("http://localhost:" + ledgerStub.port());
+        if (batching) {
+            batcher = new LedgerTransferBatcher(webClient, new SimpleMeterRegistry(), 64, Duration.ofMillis(lingerMillis), 8);
+        }
+        client = new LedgerServiceClient(webClient, Optional.ofNullable(batcher), Optional.empty());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        ledgerStub.disposeNow();
+    }
+
+    @Benchmark
+    public void postTransfer() {
+        client.postTransfer(LedgerTransferRequest.builder()
+                .transferId(UUID.randomUUID().toString())
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(Money.of(BigDecimal.ONE))
+                .build()).block();
+    }
+
+    private static String appliedOutcomes(String batchRequest) {
+        try {
+            StringBuilder json = new StringBuilder("[");
+            for (JsonNode transfer : OBJECT_MAPPER.readTree(batchRequest).get("transfers")) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("{\"transferId\":\"").append(transfer.get("transferId").asText()).append("\",\"outcome\":\"APPLIED\"}");
+            }
+            return json.append(']').toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
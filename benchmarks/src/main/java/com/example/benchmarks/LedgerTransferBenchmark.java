@@ -0,0 +1,87 @@
+package com.example.benchmarks;
+
+import com.example.ledgerservice.LedgerServiceApplication;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.service.LedgerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code LedgerService.applyTransfer} against H2, with several threads competing for the chosen accounts. Contention
+ * rises from 10000 uniformly picked accounts to 10 Zipf-skewed ones; each level runs with row locks
+ * ({@code pessimistic}) and with version-checked conditional updates ({@code optimistic}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class LedgerTransferBenchmark {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"10", "100", "10000"})
+    public int accounts;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public AccountSkew skew;
+
+    @Param({"pessimistic", "optimistic"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private LedgerService ledgerService;
+    private long[] accountIds;
+    private AccountSkew.AccountSampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LedgerServiceApplication.class)
+                .properties("spring.config.name=ledger-benchmark", "ledger.concurrency.strategy=" + strategy)
+                .run();
+        ledgerService = context.getBean(LedgerService.class);
+        accountIds = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = ledgerService.createAccount(new CreateAccountRequest(INITIAL_BALANCE, null)).getId();
+        }
+        sampler = skew.sampler(accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void applyTransfer() {
+        int from = sampler.next();
+        int to = sampler.next();
+        while (to == from) {
+            to = sampler.next();
+        }
+        ledgerService.applyTransfer(new LedgerTransferRequest(UUID.randomUUID().toString(),
+                accountIds[from], accountIds[to], AMOUNT));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.benchmarks;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.LedgerServiceApplication;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.grpc.LedgerGrpcServer;
+import com.example.ledgerservice.service.LedgerService;
+import com.example.transferservice.client.LedgerGrpcTransport;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LedgerServiceClient} against a real ledger service (Tomcat and the gRPC server side by side, H2 behind
+ * them) over {@code transport=http} (JSON) or {@code transport=grpc} (Protobuf). {@code postings=1} measures
+ * {@code postTransfer}; larger values send one {@code postTransfers} batch, a batch request over HTTP and a
+ * bidirectional stream over gRPC. Each thread moves money between its own accounts, so the ledger's row locks do
+ * not dominate the comparison. Without Spring on the client side the circuit breaker and concurrency limiter are not involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class LedgerTransportBenchmark {
+
+    private static final int ACCOUNTS_PER_THREAD = 100;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    private static final Money AMOUNT = Money.of(BigDecimal.ONE);
+
+    @Param({"http", "grpc"})
+    public String transport;
+
+    @Param({"1", "50"})
+    public int postings;
+
+    private ConfigurableApplicationContext ledgerContext;
+    private ManagedChannel channel;
+    private LedgerServiceClient client;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams benchmarkParams) {
+        ledgerContext = new SpringApplicationBuilder(LedgerServiceApplication.class)
+                .properties("spring.config.name=ledger-benchmark")
+                .run("--spring.main.web-application-type=servlet", "--server.port=0", "--ledger.grpc.enabled=true");
+        LedgerService ledgerService = ledgerContext.getBean(LedgerService.class);
+        accountIds = new long[benchmarkParams.getThreads() * ACCOUNTS_PER_THREAD];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = ledgerService.createAccount(new CreateAccountRequest(INITIAL_BALANCE, null)).getId();
+        }
+
+        WebClient webClient = WebClient.create("http://localhost:" + ledgerContext.getEnvironment().getProperty("local.server.port"));
+        LedgerGrpcTransport grpcTransport = null;
+        if ("grpc".equals(transport)) {
+            channel = NettyChannelBuilder.forAddress("localhost", ledgerContext.getBean(LedgerGrpcServer.class).getPort())
+                    .usePlaintext()
+                    .build();
+            grpcTransport = new LedgerGrpcTransport(channel, Duration.ofSeconds(5));
+        }
+        client = new LedgerServiceClient(webClient, Optional.empty(), Optional.ofNullable(grpcTransport));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        ledgerContext.close();
+    }
+
+    @Benchmark
+    public void post(ThreadParams threadParams) {
+        int firstAccount = threadParams.getThreadIndex() * ACCOUNTS_PER_THREAD;
+        if (postings == 1) {
+            client.postTransfer(nextRequest(firstAccount)).block();
+            return;
+        }
+        List<LedgerTransferRequest> batch = new ArrayList<>(postings);
+        for (int i = 0; i < postings; i++) {
+            batch.add(nextRequest(firstAccount));
+        }
+        client.postTransfers(batch).block();
+    }
+
+    private LedgerTransferRequest nextRequest(int firstAccount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS_PER_THREAD);
+        int to = (from + 1 + random.nextInt(ACCOUNTS_PER_THREAD - 1)) % ACCOUNTS_PER_THREAD;
+        return LedgerTransferRequest.builder()
+                .transferId(UUID.randomUUID().toString())
+                .fromAccountId(accountIds[firstAccount + from])
+                .toAccountId(accountIds[firstAccount + to])
+                .amount(AMOUNT)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.benchmarks;
+
+import com.example.ledger.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance check and debit/credit arithmetic of a transfer, using {@link BigDecimal} as before and the scaled
+ * {@code long} {@link Money} type. Run with {@code -prof gc} to compare allocation rates as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+    private BigDecimal amount;
+
+    private Money fromMoney;
+    private Money toMoney;
+    private Money amountMoney;
+
+    @Setup
+    public void setUp() {
+        fromBalance = new BigDecimal("1523467.89");
+        toBalance = new BigDecimal("98765.43");
+        amount = new BigDecimal("250.75");
+        fromMoney = Money.of(fromBalance);
+        toMoney = Money.of(toBalance);
+        amountMoney = Money.of(amount);
+    }
+
+    @Benchmark
+    public void bigDecimalTransfer(Blackhole blackhole) {
+        if (fromBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        blackhole.consume(fromBalance.subtract(amount));
+        blackhole.consume(toBalance.add(amount));
+        blackhole.consume(amount.negate());
+    }
+
+    @Benchmark
+    public void moneyTransfer(Blackhole blackhole) {
+        if (fromMoney.isLessThan(amountMoney)) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        blackhole.consume(fromMoney.minus(amountMoney));
+        blackhole.consume(toMoney.plus(amountMoney));
+        blackhole.consume(amountMoney.negate());
+    }
+}
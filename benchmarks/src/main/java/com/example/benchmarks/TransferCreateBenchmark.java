@@ -0,0 +1,92 @@
+package com.example.benchmarks;
+
+import com.example.transferservice.TransferServiceApplication;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TransferService.createTransfer} with the ledger call stubbed out, so that the measurement covers the
+ * transfer-service side only: idempotency lookup, transfer persistence and idempotent response storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class TransferCreateBenchmark {
+
+    private static final CreateTransferRequest REQUEST = new CreateTransferRequest(1L, 2L, new BigDecimal("10.00"));
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private UUID replayedKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransferServiceApplication.class, StubLedgerConfig.class)
+                .properties("spring.config.name=transfer-benchmark")
+                .run();
+        transferService = context.getBean(TransferService.class);
+        replayedKey = UUID.randomUUID();
+        transferService.createTransfer(replayedKey, REQUEST);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransferView createTransfer() {
+        return transferService.createTransfer(UUID.randomUUID(), REQUEST);
+    }
+
+    @Benchmark
+    public TransferView replayIdempotentTransfer() {
+        return transferService.createTransfer(replayedKey, REQUEST);
+    }
+
+    @Configuration
+    static class StubLedgerConfig {
+
+        @Bean
+        @Primary
+        LedgerServiceClient stubLedgerServiceClient() {
+            return new LedgerServiceClient(WebClient.create()) {
+                @Override
+                public Mono<Void> postTransfer(LedgerTransferRequest transferRequest) {
+                    return Mono.empty();
+                }
+            };
+        }
+    }
+}
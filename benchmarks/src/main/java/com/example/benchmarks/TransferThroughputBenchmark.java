@@ -0,0 +1,145 @@
+package com.example.benchmarks;
+
+import com.example.transferservice.TransferServiceApplication;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of {@code POST /transfers} over HTTP while every ledger call blocks for {@code ledgerLatencyMillis}.
+ * <p>
+ * With platform threads, throughput is capped at roughly {@code tomcatThreads / latency}; with virtual threads
+ * ({@code virtualThreads=true}, Java 21+ runtime only) the cap moves to the ledger concurrency limiter and the
+ * connection pool.
+ * On older runtimes Spring Boot ignores the virtual-thread switch and both variants measure platform threads.
+ * <p>
+ * Hikari connection usage and acquire times are printed at the end of each trial: a connection is only held for the
+ * two short transactions around the ledger call, not for the call itself.
+ * <p>
+ * With {@code outbox=true} the request only writes the transfer and its outbox event, and the ledger calls happen in
+ * the background dispatcher, so request throughput no longer depends on the ledger latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(256)
+public class TransferThroughputBenchmark {
+
+    private static final String REQUEST_BODY = "{\"fromAccountId\":1,\"toAccountId\":2,\"amount\":10.00}";
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"false", "true"})
+    public boolean outbox;
+
+    @Param({"50"})
+    public int ledgerLatencyMillis;
+
+    @Param({"50"})
+    public int tomcatThreads;
+
+    @Param({"10"})
+    public int connectionPoolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI transfersUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransferServiceApplication.class, DelayedLedgerConfig.class)
+                .properties("spring.config.name=transfer-benchmark")
+                .run("--spring.main.web-application-type=servlet",
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--transfer.outbox.enabled=" + outbox,
+                        "--server.tomcat.threads.max=" + tomcatThreads,
+                        "--spring.datasource.hikari.maximum-pool-size=" + connectionPoolSize,
+                        "--benchmark.ledger-latency-ms=" + ledgerLatencyMillis);
+        httpClient = HttpClient.newHttpClient();
+        transfersUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/transfers");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // How long connections were held per borrow, and how long requests queued for one.
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        Timer usage = registry.get("hikaricp.connections.usage").timer();
+        Timer acquire = registry.get("hikaricp.connections.acquire").timer();
+        System.out.printf("%nConnection usage: mean %.2f ms, max %.2f ms; acquire wait: mean %.2f ms, max %.2f ms%n",
+                usage.mean(TimeUnit.MILLISECONDS), usage.max(TimeUnit.MILLISECONDS),
+                acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS));
+        context.close();
+    }
+
+    @Benchmark
+    public int createTransfer() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(transfersUri)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(REQUEST_BODY))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Configuration
+    static class DelayedLedgerConfig {
+
+        @Bean
+        @Primary
+        LedgerServiceClient delayedLedgerServiceClient(@Value("${benchmark.ledger-latency-ms}") long latencyMillis) {
+            return new LedgerServiceClient(WebClient.create()) {
+                @Override
+                public Mono<Void> postTransfer(LedgerTransferRequest transferRequest) {
+                    return Mono.delay(Duration.ofMillis(latencyMillis)).then();
+                }
+
+                @Override
+                public Mono<List<LedgerTransferResult>> postTransfers(List<LedgerTransferRequest> transferRequests) {
+                    return Mono.delay(Duration.ofMillis(latencyMillis)).thenReturn(transferRequests.stream()
+                            .map(request -> new LedgerTransferResult(request.getTransferId(), LedgerTransferOutcome.APPLIED))
+                            .toList());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.benchmarks;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.service.TransferMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to API mapping done for every transfer response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferViewMappingBenchmark {
+
+    private Transfer transfer;
+
+    @Setup
+    public void setUp() {
+        transfer = Transfer.builder()
+                .id(UUID.randomUUID())
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(Money.of(new BigDecimal("1234.56")))
+                .status(TransferStatus.COMPLETED)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public TransferView toTransferView() {
+        return TransferMapper.toTransferView(transfer);
+    }
+}
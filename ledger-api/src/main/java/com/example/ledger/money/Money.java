@@ -0,0 +1,133 @@
+package com.example.ledger.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount stored as a {@code long} count of minor units plus the currency scale
+ * (e.g. {@code 1050} with scale {@code 2} is {@code 10.50}).
+ * <p>
+ * Arithmetic is allocation-light compared to {@link BigDecimal}, fails with an {@link ArithmeticException} on
+ * overflow, and refuses to combine amounts of different scales. {@link BigDecimal} is only used at the edges:
+ * database columns (see {@link MoneyConverter}) and JSON, where amounts are written as plain numbers. Shared by the
+ * ledger and transfer services, so both sides of the ledger API agree on precision and JSON form.
+ */
+@Getter
+@EqualsAndHashCode
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    public static Money ofMinor(long minorUnits, int scale) {
+        if (scale < 0 || scale > 18) {
+            throw new IllegalArgumentException("Unsupported scale: " + scale);
+        }
+        return new Money(minorUnits, scale);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_SCALE);
+    }
+
+    /**
+     * Converts an exact decimal amount. Amounts with more fractional digits than {@code scale}, or too large to be
+     * held as a {@code long} of minor units, are rejected rather than rounded.
+     */
+    public static Money of(BigDecimal amount, int scale) {
+        try {
+            return ofMinor(amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), scale);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " cannot be represented with " + scale + " decimal places", e);
+        }
+    }
+
+    public static Money zero() {
+        return new Money(0, DEFAULT_SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, sameScale(other).minorUnits), scale);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, sameScale(other).minorUnits), scale);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), scale);
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < sameScale(other).minorUnits;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameScale(other).minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private Money sameScale(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Scale mismatch: " + scale + " vs " + other.scale);
+        }
+        return other;
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            BigDecimal amount = p.currentToken() == JsonToken.VALUE_STRING
+                    ? new BigDecimal(p.getText().trim())
+                    : p.getDecimalValue();
+            try {
+                return Money.of(amount);
+            } catch (IllegalArgumentException e) {
+                return (Money) ctxt.handleWeirdNumberValue(Money.class, amount, e.getMessage());
+            }
+        }
+    }
+}
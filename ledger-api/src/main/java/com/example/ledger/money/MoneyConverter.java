@@ -0,0 +1,24 @@
+package com.example.ledger.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores {@link Money} in the existing {@code DECIMAL} columns, so the schema and SQL tooling are unchanged. Applied to
+ * every {@code Money} attribute of the services that include this package in their {@code @EntityScan}.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
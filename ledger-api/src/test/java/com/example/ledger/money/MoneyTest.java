@@ -0,0 +1,50 @@
+package com.example.ledger.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void arithmetic_shouldWorkOnMinorUnits() {
+        Money balance = Money.of(new BigDecimal("100.50"));
+        Money amount = Money.of(new BigDecimal("0.75"));
+
+        assertEquals(10050, balance.getMinorUnits());
+        assertEquals(Money.of(new BigDecimal("99.75")), balance.minus(amount));
+        assertEquals(Money.of(new BigDecimal("101.25")), balance.plus(amount));
+        assertEquals(new BigDecimal("-0.75"), amount.negate().toBigDecimal());
+        assertTrue(amount.isLessThan(balance));
+    }
+
+    @Test
+    void of_shouldRejectExtraPrecisionAndOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.005")));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e30")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, 2).plus(Money.ofMinor(1, 2)));
+    }
+
+    @Test
+    void arithmetic_shouldRejectScaleMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(100, 2).plus(Money.ofMinor(100, 3)));
+    }
+
+    @Test
+    void json_shouldRoundTripAsPlainNumber() throws Exception {
+        Money money = Money.of(new BigDecimal("1000.5"));
+
+        assertEquals("1000.50", objectMapper.writeValueAsString(money));
+        assertEquals(money, objectMapper.readValue("1000.50", Money.class));
+        assertEquals(money, objectMapper.readValue("\"1000.5\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("0.001", Money.class));
+    }
+}
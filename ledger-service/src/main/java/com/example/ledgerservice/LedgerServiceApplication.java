@@ -1,11 +1,17 @@
 package com.example.ledgerservice;
 
+import com.example.ledger.money.MoneyConverter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+// MoneyConverter lives in the shared ledger-api module, outside the default entity scan.
+@EntityScan(basePackageClasses = {LedgerServiceApplication.class, MoneyConverter.class})
 @EnableJpaAuditing
+@EnableScheduling
 public class LedgerServiceApplication {
 
     public static void main(String[] args) {
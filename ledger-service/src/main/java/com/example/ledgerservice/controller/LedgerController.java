@@ -2,23 +2,30 @@ package com.example.ledgerservice.controller;
 
 import com.example.ledgerservice.dto.AccountView;
 import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerBatchTransferRequest;
 import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
 import com.example.ledgerservice.service.LedgerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/")
 @RequiredArgsConstructor
 @Tag(name = "Ledger", description = "Ledger and Account Management API")
 public class LedgerController {
 
+    private static final int MAX_BULK_ACCOUNTS = 500;
+
     private final LedgerService ledgerService;
 
     @PostMapping("/accounts")
@@ -34,6 +41,12 @@ public class LedgerController {
         return ledgerService.getAccount(id);
     }
 
+    @GetMapping(value = "/accounts", params = "ids")
+    @Operation(summary = "Get the balances of several accounts in one call; unknown IDs are left out")
+    public List<AccountView> getAccounts(@RequestParam("ids") @Size(min = 1, max = MAX_BULK_ACCOUNTS) List<Long> ids) {
+        return ledgerService.getAccounts(ids);
+    }
+
     @PostMapping("/ledger/transfer")
     @Operation(summary = "Apply a ledger transfer")
     @ApiResponse(responseCode = "200", description = "Transfer applied successfully")
@@ -45,6 +58,14 @@ public class LedgerController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/ledger/transfers:batch")
+    @Operation(summary = "Apply a batch of ledger transfers in a single transaction")
+    @ApiResponse(responseCode = "200", description = "Batch processed; see the outcome of each transfer")
+    @ApiResponse(responseCode = "400", description = "Invalid input")
+    public List<LedgerTransferResult> applyTransfers(@Valid @RequestBody LedgerBatchTransferRequest request) {
+        return ledgerService.applyTransfers(request.getTransfers());
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check endpoint")
     public ResponseEntity<String> healthCheck() {
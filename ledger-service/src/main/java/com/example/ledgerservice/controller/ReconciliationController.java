@@ -0,0 +1,35 @@
+package com.example.ledgerservice.controller;
+
+import com.example.ledgerservice.dto.ReconciliationReport;
+import com.example.ledgerservice.service.BalanceReconciler;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Balance reconciliation against the ledger entries. Like statements, only available with the JPA engine.
+ */
+@RestController
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+@Tag(name = "Ledger", description = "Ledger and Account Management API")
+public class ReconciliationController {
+
+    private final BalanceReconciler balanceReconciler;
+
+    @GetMapping("/reconciliation")
+    @Operation(summary = "Get the latest reconciliation run and every account whose balance drifts from its ledger entries")
+    public ReconciliationReport getReconciliation() {
+        return balanceReconciler.report();
+    }
+
+    @PostMapping("/reconciliation")
+    @Operation(summary = "Reconcile the entries posted since the last run now, instead of waiting for the schedule")
+    public ReconciliationReport reconcile() {
+        return balanceReconciler.reconcile();
+    }
+}
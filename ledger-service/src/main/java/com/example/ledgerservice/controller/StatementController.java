@@ -0,0 +1,49 @@
+package com.example.ledgerservice.controller;
+
+import com.example.ledgerservice.dto.StatementPage;
+import com.example.ledgerservice.service.StatementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Account statements. Only the JPA engine keeps ledger entries in the database, so these endpoints do not exist with
+ * {@code ledger.engine=in-memory}.
+ */
+@RestController
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+@Tag(name = "Ledger", description = "Ledger and Account Management API")
+public class StatementController {
+
+    private final StatementService statementService;
+
+    @GetMapping("/accounts/{id}/entries")
+    @Operation(summary = "Get a page of an account's ledger entries, oldest first; pass nextCursor as 'after' for the next page")
+    public StatementPage getEntries(@PathVariable("id") Long id,
+                                    @RequestParam(value = "after", required = false) Long after,
+                                    @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return statementService.getStatement(id, after, limit);
+    }
+
+    @GetMapping(value = "/accounts/{id}/entries/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all of an account's ledger entries as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportEntries(@PathVariable("id") Long id,
+                                                               @RequestParam(value = "after", required = false) Long after) {
+        // Checked before streaming starts, so an unknown account is still a 404 rather than a truncated 200.
+        statementService.requireAccount(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> statementService.exportStatement(id, after, out));
+    }
+}
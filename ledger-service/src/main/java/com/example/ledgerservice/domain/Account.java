@@ -1,13 +1,12 @@
 package com.example.ledgerservice.domain;
 
+import com.example.ledger.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = "accounts")
 @Data
@@ -21,8 +20,19 @@ public class Account {
     private Long id;
 
     @Column(nullable = false)
-    private BigDecimal balance;
+    private Money balance;
 
     @Version
     private Long version;
+
+    // Number of balance buckets for a sharded account, 0 for a regular one. Fixed when the account is created.
+    @Column(nullable = false)
+    private int bucketCount;
+
+    /**
+     * Whether the balance is held in {@link AccountBucket} rows rather than in {@link #balance}.
+     */
+    public boolean isSharded() {
+        return bucketCount > 0;
+    }
 }
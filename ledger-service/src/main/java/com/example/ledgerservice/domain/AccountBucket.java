@@ -0,0 +1,34 @@
+package com.example.ledgerservice.domain;
+
+import com.example.ledger.money.Money;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of the balance of a sharded {@link Account}. The account's balance is the sum of its buckets.
+ */
+@Entity
+@Table(name = "account_buckets", uniqueConstraints = @UniqueConstraint(name = "uk_account_buckets_account_index",
+        columnNames = {"accountId", "bucketIndex"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private int bucketIndex;
+
+    @Column(nullable = false)
+    private Money balance;
+}
@@ -0,0 +1,40 @@
+package com.example.ledgerservice.domain;
+
+import com.example.ledger.money.Money;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last reconciled state of an {@link Account}: the balance its ledger entries add up to, up to and including
+ * entry {@link #lastEntryId}. The next reconciliation only has to sum the entries after it.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    private Long accountId;
+
+    // Opening balance plus every entry up to lastEntryId; what the account balance should be.
+    @Column(nullable = false)
+    private Money ledgerBalance;
+
+    @Column(nullable = false)
+    private long lastEntryId;
+
+    // Account balance minus ledgerBalance when last checked; zero while the two agree.
+    @Column(nullable = false)
+    private Money drift;
+
+    @Column(nullable = false)
+    private LocalDateTime checkedAt;
+}
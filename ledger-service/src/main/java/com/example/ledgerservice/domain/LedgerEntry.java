@@ -1,5 +1,6 @@
 package com.example.ledgerservice.domain;
 
+import com.example.ledger.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,12 +9,13 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "ledger_entries", indexes = {
-    @Index(name = "idx_transfer_id", columnList = "transferId", unique = true)
+    @Index(name = "idx_transfer_id", columnList = "transferId, type", unique = true),
+    // Serves statement pages and exports: seek to (accountId, id) and read forward.
+    @Index(name = "idx_account_entry", columnList = "accountId, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -22,8 +24,10 @@ import java.time.LocalDateTime;
 @Builder
 public class LedgerEntry {
 
+    // Sequence-backed ids (unlike IDENTITY) let Hibernate batch the entry inserts of a transfer or batch.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, updatable = false)
@@ -33,7 +37,7 @@ public class LedgerEntry {
     private Long accountId;
 
     @Column(nullable = false, updatable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, updatable = false)
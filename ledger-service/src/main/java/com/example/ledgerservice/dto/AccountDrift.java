@@ -0,0 +1,25 @@
+package com.example.ledgerservice.dto;
+
+import com.example.ledger.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An account whose balance disagrees with the sum of its ledger entries, as of its last reconciliation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountDrift {
+    private Long accountId;
+    private Money accountBalance;
+    private Money ledgerBalance;
+    private Money drift;
+    private long lastEntryId;
+    private LocalDateTime checkedAt;
+}
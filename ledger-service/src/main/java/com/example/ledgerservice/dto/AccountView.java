@@ -1,18 +1,17 @@
 package com.example.ledgerservice.dto;
 
+import com.example.ledger.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class AccountView {
     private Long id;
-    private BigDecimal balance;
+    private Money balance;
     private Long version;
 }
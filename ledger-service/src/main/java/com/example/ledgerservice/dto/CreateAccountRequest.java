@@ -1,6 +1,9 @@
 package com.example.ledgerservice.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,5 +18,11 @@ public class CreateAccountRequest {
 
     @NotNull(message = "Initial balance cannot be null")
     @DecimalMin(value = "0.0", inclusive = true, message = "Initial balance must be non-negative")
+    @Digits(integer = 16, fraction = 2, message = "Initial balance must have at most 16 integer digits and 2 decimal places")
     private BigDecimal initialBalance;
+
+    // Optional: splits the balance of a hot account (e.g. a merchant settlement account) into this many bucket rows.
+    @Min(value = 1, message = "Balance buckets must be at least 1")
+    @Max(value = 64, message = "Balance buckets must be at most 64")
+    private Integer balanceBuckets;
 }
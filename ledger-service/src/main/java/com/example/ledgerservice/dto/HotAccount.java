@@ -0,0 +1,22 @@
+package com.example.ledgerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An account with contended row or bucket locks. Waits are decayed over time, so they reflect recent contention;
+ * {@code waitErrorMillis} bounds how much {@code waitMillis} may overstate it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotAccount {
+    private Long accountId;
+    private double waitMillis;
+    private double waitErrorMillis;
+    private long contendedLocks;
+    private double maxWaitMillis;
+}
@@ -0,0 +1,20 @@
+package com.example.ledgerservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerBatchTransferRequest {
+
+    @NotEmpty(message = "Transfers cannot be empty")
+    @Size(max = 1000, message = "Batch size cannot exceed 1000 transfers")
+    private List<@Valid LedgerTransferRequest> transfers;
+}
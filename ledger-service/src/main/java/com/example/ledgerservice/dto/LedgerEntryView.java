@@ -0,0 +1,23 @@
+package com.example.ledgerservice.dto;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.LedgerEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntryView {
+    private Long id;
+    private String transferId;
+    private Long accountId;
+    private Money amount;
+    private LedgerEntryType type;
+    private LocalDateTime createdAt;
+}
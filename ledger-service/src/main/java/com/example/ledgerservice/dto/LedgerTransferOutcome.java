@@ -0,0 +1,8 @@
+package com.example.ledgerservice.dto;
+
+public enum LedgerTransferOutcome {
+    APPLIED,
+    DUPLICATE,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND
+}
@@ -1,6 +1,7 @@
 package com.example.ledgerservice.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -25,5 +26,6 @@ public class LedgerTransferRequest {
 
     @NotNull(message = "Amount cannot be null")
     @DecimalMin(value = "0.0", inclusive = false, message = "Transfer amount must be positive")
+    @Digits(integer = 16, fraction = 2, message = "Transfer amount must have at most 16 integer digits and 2 decimal places")
     private BigDecimal amount;
 }
@@ -0,0 +1,25 @@
+package com.example.ledgerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The outcome of the latest reconciliation run, and every account currently drifting.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReport {
+    private LocalDateTime lastRunAt;
+    private long lastRunMillis;
+    private long accountsChecked;
+    private long entriesVerified;
+    private long failures;
+    private List<AccountDrift> drifts;
+}
@@ -0,0 +1,21 @@
+package com.example.ledgerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an account statement. Pass {@code nextCursor} as {@code after} to get the next page; it is
+ * {@code null} on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementPage {
+    private List<LedgerEntryView> entries;
+    private Long nextCursor;
+}
@@ -0,0 +1,13 @@
+package com.example.ledgerservice.engine;
+
+import lombok.Value;
+
+/**
+ * Point-in-time view of an account held by the in-memory engine. Balances are in minor units.
+ */
+@Value
+public class AccountSnapshot {
+    long id;
+    long balance;
+    long version;
+}
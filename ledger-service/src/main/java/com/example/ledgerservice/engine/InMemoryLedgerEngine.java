@@ -0,0 +1,239 @@
+package com.example.ledgerservice.engine;
+
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single-writer ledger engine in the style of the LMAX architecture.
+ * <p>
+ * All account state lives in primitive arrays indexed by account id and is owned by one writer thread. Request
+ * threads publish commands into a lock-free ring buffer; the writer executes them in order, appends every state
+ * change to the {@link LedgerJournal}, and completes the callers' futures only once the journal has been forced to
+ * disk at the end of each batch (group commit). On start-up the journal is replayed to rebuild the state.
+ */
+@Slf4j
+public class InMemoryLedgerEngine implements EventHandler<LedgerCommand>, AutoCloseable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LedgerJournal journal;
+    private final Disruptor<LedgerCommand> disruptor;
+
+    // Writer-thread state. Slot 0 is unused so that account ids can index the arrays directly.
+    private long[] balances = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long accountCount;
+    private final Set<String> appliedTransferIds = new HashSet<>();
+
+    private final List<CompletableFuture<Object>> pendingFutures = new ArrayList<>();
+    private final List<Object> pendingResults = new ArrayList<>();
+    private Throwable journalFailure;
+
+    private RingBuffer<LedgerCommand> ringBuffer;
+
+    public InMemoryLedgerEngine(LedgerJournal journal, int ringBufferSize) {
+        this.journal = journal;
+        this.disruptor = new Disruptor<>(LedgerCommand::new, ringBufferSize,
+                runnable -> new Thread(runnable, "ledger-engine-writer"),
+                ProducerType.MULTI, new BlockingWaitStrategy());
+        this.disruptor.handleEventsWith(this);
+    }
+
+    /**
+     * Rebuilds the state from the journal and starts the writer thread.
+     */
+    public void start() {
+        journal.replay(new LedgerJournal.Visitor() {
+            @Override
+            public void onAccountCreated(long accountId, long initialBalance) {
+                ensureCapacity(accountId);
+                balances[(int) accountId] = initialBalance;
+                accountCount = Math.max(accountCount, accountId);
+            }
+
+            @Override
+            public void onTransferApplied(String transferId, long fromAccountId, long toAccountId, long amount) {
+                move(fromAccountId, toAccountId, amount);
+                appliedTransferIds.add(transferId);
+            }
+        });
+        log.info("Replayed ledger journal: {} accounts, {} transfers", accountCount, appliedTransferIds.size());
+        ringBuffer = disruptor.start();
+    }
+
+    public CompletableFuture<AccountSnapshot> createAccount(long initialBalance) {
+        return publish(LedgerCommand.Type.CREATE_ACCOUNT, 0, initialBalance, null, null);
+    }
+
+    public CompletableFuture<AccountSnapshot> getAccount(long accountId) {
+        return publish(LedgerCommand.Type.GET_ACCOUNT, accountId, 0, null, null);
+    }
+
+    public CompletableFuture<Void> applyTransfer(TransferCommand transfer) {
+        return publish(LedgerCommand.Type.APPLY_TRANSFER, 0, 0, transfer, null);
+    }
+
+    public CompletableFuture<List<LedgerTransferOutcome>> applyTransfers(List<TransferCommand> transfers) {
+        return publish(LedgerCommand.Type.APPLY_TRANSFERS, 0, 0, null, transfers);
+    }
+
+    @Override
+    public void close() throws IOException {
+        disruptor.shutdown();
+        journal.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> publish(LedgerCommand.Type type, long accountId, long amount,
+                                             TransferCommand transfer, List<TransferCommand> transfers) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        ringBuffer.publishEvent((command, sequence) -> {
+            command.type = type;
+            command.accountId = accountId;
+            command.amount = amount;
+            command.transfer = transfer;
+            command.transfers = transfers;
+            command.result = result;
+        });
+        return (CompletableFuture<T>) result;
+    }
+
+    @Override
+    public void onEvent(LedgerCommand command, long sequence, boolean endOfBatch) {
+        pendingFutures.add(command.result);
+        try {
+            pendingResults.add(journalFailure != null ? journalFailure : execute(command));
+        } catch (RuntimeException e) {
+            pendingResults.add(e);
+        } finally {
+            command.clear();
+        }
+        if (endOfBatch) {
+            acknowledge();
+        }
+    }
+
+    private Object execute(LedgerCommand command) {
+        return switch (command.type) {
+            case CREATE_ACCOUNT -> {
+                long accountId = accountCount + 1;
+                ensureCapacity(accountId);
+                journal.appendAccountCreated(accountId, command.amount);
+                balances[(int) accountId] = command.amount;
+                accountCount = accountId;
+                yield snapshot(accountId);
+            }
+            case GET_ACCOUNT -> {
+                requireAccount(command.accountId, "Account not found with ID: ");
+                yield snapshot(command.accountId);
+            }
+            case APPLY_TRANSFER -> {
+                TransferCommand transfer = command.transfer;
+                requireAccount(transfer.getFromAccountId(), "From account not found: ");
+                requireAccount(transfer.getToAccountId(), "To account not found: ");
+                if (tryApply(transfer) == LedgerTransferOutcome.INSUFFICIENT_FUNDS) {
+                    throw new InsufficientFundsException("Insufficient funds in account: " + transfer.getFromAccountId());
+                }
+                yield null;
+            }
+            case APPLY_TRANSFERS -> {
+                List<LedgerTransferOutcome> outcomes = new ArrayList<>(command.transfers.size());
+                for (TransferCommand transfer : command.transfers) {
+                    outcomes.add(exists(transfer.getFromAccountId()) && exists(transfer.getToAccountId())
+                            ? tryApply(transfer)
+                            : LedgerTransferOutcome.ACCOUNT_NOT_FOUND);
+                }
+                yield outcomes;
+            }
+        };
+    }
+
+    private LedgerTransferOutcome tryApply(TransferCommand transfer) {
+        if (appliedTransferIds.contains(transfer.getTransferId())) {
+            return LedgerTransferOutcome.DUPLICATE;
+        }
+        if (balances[(int) transfer.getFromAccountId()] < transfer.getAmount()) {
+            return LedgerTransferOutcome.INSUFFICIENT_FUNDS;
+        }
+        if (balances[(int) transfer.getToAccountId()] > Long.MAX_VALUE - transfer.getAmount()) {
+            // Rejected before journaling, so nothing is recorded; onEvent fails the caller's future with it. Transfers
+            // applied earlier in the same batch stay applied, and a retry reports them as duplicates.
+            throw new ArithmeticException("Balance of account " + transfer.getToAccountId() + " would overflow");
+        }
+        // Journal first: a record that cannot be written must not leave the in-memory state ahead of the journal.
+        journal.appendTransferApplied(transfer.getTransferId(), transfer.getFromAccountId(),
+                transfer.getToAccountId(), transfer.getAmount());
+        move(transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount());
+        appliedTransferIds.add(transfer.getTransferId());
+        return LedgerTransferOutcome.APPLIED;
+    }
+
+    private void move(long fromAccountId, long toAccountId, long amount) {
+        balances[(int) fromAccountId] -= amount;
+        balances[(int) toAccountId] += amount;
+        versions[(int) fromAccountId]++;
+        versions[(int) toAccountId]++;
+    }
+
+    private void acknowledge() {
+        if (journal.hasUnsyncedRecords() && journalFailure == null) {
+            try {
+                journal.sync();
+            } catch (RuntimeException e) {
+                // The in-memory state is now ahead of the journal, so the engine stops accepting work.
+                log.error("Could not sync ledger journal; rejecting all further commands", e);
+                journalFailure = new IllegalStateException("Ledger journal is unavailable", e);
+            }
+        }
+        for (int i = 0; i < pendingFutures.size(); i++) {
+            Object result = journalFailure != null ? journalFailure : pendingResults.get(i);
+            if (result instanceof Throwable failure) {
+                pendingFutures.get(i).completeExceptionally(failure);
+            } else {
+                pendingFutures.get(i).complete(result);
+            }
+        }
+        pendingFutures.clear();
+        pendingResults.clear();
+    }
+
+    private void requireAccount(long accountId, String message) {
+        if (!exists(accountId)) {
+            throw new AccountNotFoundException(message + accountId);
+        }
+    }
+
+    private boolean exists(long accountId) {
+        return accountId > 0 && accountId <= accountCount;
+    }
+
+    private AccountSnapshot snapshot(long accountId) {
+        return new AccountSnapshot(accountId, balances[(int) accountId], versions[(int) accountId]);
+    }
+
+    private void ensureCapacity(long accountId) {
+        if (accountId >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("In-memory ledger cannot hold more than " + (Integer.MAX_VALUE - 1) + " accounts");
+        }
+        if (accountId >= balances.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(accountId + 1, (long) balances.length * 2));
+            balances = Arrays.copyOf(balances, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+    }
+}
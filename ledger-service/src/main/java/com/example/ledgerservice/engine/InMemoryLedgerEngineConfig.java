@@ -0,0 +1,30 @@
+package com.example.ledgerservice.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "in-memory")
+public class InMemoryLedgerEngineConfig {
+
+    @Value("${ledger.engine.journal-path:data/ledger.journal}")
+    private Path journalPath;
+
+    @Value("${ledger.engine.journal-segment-size:67108864}")
+    private int journalSegmentSize;
+
+    @Value("${ledger.engine.ring-buffer-size:65536}")
+    private int ringBufferSize;
+
+    @Bean(destroyMethod = "close")
+    public InMemoryLedgerEngine inMemoryLedgerEngine() throws IOException {
+        InMemoryLedgerEngine engine = new InMemoryLedgerEngine(new LedgerJournal(journalPath, journalSegmentSize), ringBufferSize);
+        engine.start();
+        return engine;
+    }
+}
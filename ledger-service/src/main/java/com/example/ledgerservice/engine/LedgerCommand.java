@@ -0,0 +1,33 @@
+package com.example.ledgerservice.engine;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mutable ring buffer slot. Producers fill it in, the writer thread executes it and then clears it for reuse.
+ */
+final class LedgerCommand {
+
+    enum Type {
+        CREATE_ACCOUNT,
+        GET_ACCOUNT,
+        APPLY_TRANSFER,
+        APPLY_TRANSFERS
+    }
+
+    Type type;
+    long accountId;
+    long amount;
+    TransferCommand transfer;
+    List<TransferCommand> transfers;
+    CompletableFuture<Object> result;
+
+    void clear() {
+        type = null;
+        accountId = 0;
+        amount = 0;
+        transfer = null;
+        transfers = null;
+        result = null;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ledgerservice.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead journal for the in-memory ledger engine.
+ * <p>
+ * The file is mapped in fixed-size segments. Each record is {@code [int length][int crc32][byte type][payload]};
+ * a length of {@code 0} marks the end of the journal and {@code -1} means the rest of the segment is unused.
+ * Records never span segments. The header is written after the payload and a record whose checksum does not
+ * match is treated as a torn tail left by a crash, so replay stops there. The journal is not thread-safe and is
+ * only touched by the engine's writer thread.
+ */
+public final class LedgerJournal implements Closeable {
+
+    private static final byte ACCOUNT_CREATED = 1;
+    private static final byte TRANSFER_APPLIED = 2;
+    private static final int END_OF_SEGMENT = -1;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int HEADER_BYTES = LENGTH_BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int dirtyFrom = -1;
+    private int recordStart;
+    private boolean replayed;
+
+    public LedgerJournal(Path path, int segmentSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmentSize = segmentSize;
+        this.segment = map(0);
+    }
+
+    /**
+     * Replays every record in the journal and leaves the write position at its end. Must be called exactly once
+     * before the first append.
+     */
+    public void replay(Visitor visitor) {
+        if (replayed) {
+            throw new IllegalStateException("Journal has already been replayed");
+        }
+        while (true) {
+            if (segment.remaining() < LENGTH_BYTES) {
+                nextSegment();
+                continue;
+            }
+            int start = segment.position();
+            int length = segment.getInt();
+            if (length == END_OF_SEGMENT) {
+                nextSegment();
+                continue;
+            }
+            if (length == 0) {
+                segment.position(start);
+                break;
+            }
+            if (length < 0 || length > segment.remaining() - Integer.BYTES || segment.getInt() != checksum(start, length)) {
+                truncateAt(start);
+                break;
+            }
+            byte type = segment.get();
+            switch (type) {
+                case ACCOUNT_CREATED -> visitor.onAccountCreated(segment.getLong(), segment.getLong());
+                case TRANSFER_APPLIED -> {
+                    long fromAccountId = segment.getLong();
+                    long toAccountId = segment.getLong();
+                    long amount = segment.getLong();
+                    byte[] transferId = new byte[segment.getShort()];
+                    segment.get(transferId);
+                    visitor.onTransferApplied(new String(transferId, StandardCharsets.UTF_8), fromAccountId, toAccountId, amount);
+                }
+                default -> throw new IllegalStateException("Corrupt journal: unknown record type " + type
+                        + " at offset " + (segmentStart + segment.position() - 1));
+            }
+        }
+        replayed = true;
+    }
+
+    public void appendAccountCreated(long accountId, long initialBalance) {
+        beginRecord(1 + 2 * Long.BYTES);
+        segment.put(ACCOUNT_CREATED);
+        segment.putLong(accountId);
+        segment.putLong(initialBalance);
+        endRecord();
+    }
+
+    public void appendTransferApplied(String transferId, long fromAccountId, long toAccountId, long amount) {
+        byte[] transferIdBytes = transferId.getBytes(StandardCharsets.UTF_8);
+        if (transferIdBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Transfer ID is too long to journal");
+        }
+        beginRecord(1 + 3 * Long.BYTES + Short.BYTES + transferIdBytes.length);
+        segment.put(TRANSFER_APPLIED);
+        segment.putLong(fromAccountId);
+        segment.putLong(toAccountId);
+        segment.putLong(amount);
+        segment.putShort((short) transferIdBytes.length);
+        segment.put(transferIdBytes);
+        endRecord();
+    }
+
+    /**
+     * Forces every record appended since the last sync to the storage device.
+     */
+    public void sync() {
+        if (dirtyFrom >= 0) {
+            segment.force(dirtyFrom, segment.position() - dirtyFrom);
+            dirtyFrom = -1;
+        }
+    }
+
+    public boolean hasUnsyncedRecords() {
+        return dirtyFrom >= 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (replayed) {
+            sync();
+        }
+        channel.close();
+    }
+
+    private void beginRecord(int length) {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed before appending");
+        }
+        if (HEADER_BYTES + length + LENGTH_BYTES > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit in a segment");
+        }
+        // Keep room for the terminating zero length so a reader always finds the end of the journal.
+        if (segment.remaining() < HEADER_BYTES + length + LENGTH_BYTES) {
+            markDirty();
+            segment.putInt(END_OF_SEGMENT);
+            nextSegment();
+        }
+        markDirty();
+        recordStart = segment.position();
+        segment.position(recordStart + HEADER_BYTES);
+    }
+
+    private void endRecord() {
+        int length = segment.position() - recordStart - HEADER_BYTES;
+        segment.putInt(recordStart + LENGTH_BYTES, checksum(recordStart, length));
+        segment.putInt(recordStart, length);
+    }
+
+    private int checksum(int recordStart, int length) {
+        crc.reset();
+        crc.update(segment.slice(recordStart + HEADER_BYTES, length));
+        return (int) crc.getValue();
+    }
+
+    private void truncateAt(int position) {
+        for (int i = position; i < segment.limit(); i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.position(position);
+    }
+
+    private void markDirty() {
+        if (dirtyFrom < 0) {
+            dirtyFrom = segment.position();
+        }
+    }
+
+    private void nextSegment() {
+        sync();
+        segmentStart += segmentSize;
+        segment = map(segmentStart);
+    }
+
+    private MappedByteBuffer map(long position) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map journal segment at offset " + position, e);
+        }
+    }
+
+    public interface Visitor {
+        void onAccountCreated(long accountId, long initialBalance);
+
+        void onTransferApplied(String transferId, long fromAccountId, long toAccountId, long amount);
+    }
+}
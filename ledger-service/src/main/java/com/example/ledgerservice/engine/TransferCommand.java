@@ -0,0 +1,14 @@
+package com.example.ledgerservice.engine;
+
+import lombok.Value;
+
+/**
+ * A transfer submitted to the in-memory engine, with the amount already converted to minor units.
+ */
+@Value
+public class TransferCommand {
+    String transferId;
+    long fromAccountId;
+    long toAccountId;
+    long amount;
+}
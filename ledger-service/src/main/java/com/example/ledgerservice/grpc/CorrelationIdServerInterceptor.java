@@ -0,0 +1,72 @@
+package com.example.ledgerservice.grpc;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import org.slf4j.MDC;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * gRPC counterpart of {@code RequestCorrelationFilter}: reads {@code x-correlation-id} from the call metadata and
+ * puts it in the MDC around every callback of the call, since gRPC may run them on different threads.
+ */
+public class CorrelationIdServerInterceptor implements ServerInterceptor {
+
+    public static final Metadata.Key<String> CORRELATION_ID_KEY =
+            Metadata.Key.of("x-correlation-id", Metadata.ASCII_STRING_MARSHALLER);
+    private static final String CORRELATION_ID_LOG_VAR_NAME = "correlationId";
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String header = headers.get(CORRELATION_ID_KEY);
+        String correlationId = header != null ? header : UUID.randomUUID().toString();
+        ServerCall.Listener<ReqT> listener = withCorrelationId(correlationId, () -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                withCorrelationId(correlationId, () -> {
+                    super.onMessage(message);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onHalfClose() {
+                withCorrelationId(correlationId, () -> {
+                    super.onHalfClose();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onCancel() {
+                withCorrelationId(correlationId, () -> {
+                    super.onCancel();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                withCorrelationId(correlationId, () -> {
+                    super.onComplete();
+                    return null;
+                });
+            }
+        };
+    }
+
+    private static <T> T withCorrelationId(String correlationId, Supplier<T> action) {
+        MDC.put(CORRELATION_ID_LOG_VAR_NAME, correlationId);
+        try {
+            return action.get();
+        } finally {
+            MDC.remove(CORRELATION_ID_LOG_VAR_NAME);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ledgerservice.grpc;
+
+import com.example.ledgerservice.service.LedgerService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link LedgerGrpcService} on {@code ledger.grpc.port} next to the REST API, enabled with
+ * {@code ledger.grpc.enabled=true}. Plaintext, like the REST API between the services.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.grpc.enabled", havingValue = "true")
+@Slf4j
+public class LedgerGrpcServer implements SmartLifecycle {
+
+    private final Server server;
+    private final Duration shutdownGracePeriod;
+    private volatile boolean running;
+
+    public LedgerGrpcServer(LedgerService ledgerService,
+                            @Value("${ledger.grpc.port}") int port,
+                            @Value("${ledger.grpc.batch-size}") int batchSize,
+                            @Value("${ledger.grpc.shutdown-grace-period}") Duration shutdownGracePeriod) {
+        this.server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(new LedgerGrpcService(ledgerService, batchSize),
+                        new CorrelationIdServerInterceptor()))
+                .build();
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+            running = true;
+            log.info("Ledger gRPC server listening on port {}", server.getPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the ledger gRPC server", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The bound port; differs from {@code ledger.grpc.port} when that is {@code 0}.
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.ledgerservice.grpc;
+
+import com.example.ledger.grpc.Account;
+import com.example.ledger.grpc.GetAccountRequest;
+import com.example.ledger.grpc.LedgerServiceGrpc;
+import com.example.ledger.grpc.TransferOutcome;
+import com.example.ledger.grpc.TransferPosting;
+import com.example.ledger.grpc.TransferResult;
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.service.LedgerService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gRPC binding of {@link LedgerService}, served by {@link LedgerGrpcServer}. Unlike the REST API, rejected transfers
+ * are reported as outcomes rather than error statuses; only malformed postings and unexpected failures are errors.
+ */
+@Slf4j
+public class LedgerGrpcService extends LedgerServiceGrpc.LedgerServiceImplBase {
+
+    private final LedgerService ledgerService;
+    private final int batchSize;
+
+    public LedgerGrpcService(LedgerService ledgerService, int batchSize) {
+        this.ledgerService = ledgerService;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void applyTransfer(TransferPosting posting, StreamObserver<TransferResult> responseObserver) {
+        TransferOutcome outcome;
+        try {
+            ledgerService.applyTransfer(toRequest(posting));
+            outcome = TransferOutcome.APPLIED;
+        } catch (InsufficientFundsException e) {
+            outcome = TransferOutcome.INSUFFICIENT_FUNDS;
+        } catch (AccountNotFoundException e) {
+            outcome = TransferOutcome.ACCOUNT_NOT_FOUND;
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (RuntimeException e) {
+            log.error("gRPC transfer {} failed", posting.getTransferId(), e);
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(TransferResult.newBuilder().setTransferId(posting.getTransferId()).setOutcome(outcome).build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Applies the streamed postings in chunks of {@code ledger.grpc.batch-size}, each in one ledger transaction, and
+     * streams their results back as each chunk completes. Callbacks for one call are never concurrent.
+     */
+    @Override
+    public StreamObserver<TransferPosting> applyTransfers(StreamObserver<TransferResult> responseObserver) {
+        return new StreamObserver<>() {
+            private final List<LedgerTransferRequest> chunk = new ArrayList<>();
+            private boolean failed;
+
+            @Override
+            public void onNext(TransferPosting posting) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    chunk.add(toRequest(posting));
+                    if (chunk.size() >= batchSize) {
+                        flush();
+                    }
+                } catch (IllegalArgumentException e) {
+                    fail(Status.INVALID_ARGUMENT.withDescription(e.getMessage()));
+                } catch (RuntimeException e) {
+                    log.error("gRPC transfer batch failed", e);
+                    fail(Status.INTERNAL.withDescription(e.getMessage()));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("gRPC transfer stream cancelled by the client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed) {
+                    return;
+                }
+                try {
+                    flush();
+                    responseObserver.onCompleted();
+                } catch (RuntimeException e) {
+                    log.error("gRPC transfer batch failed", e);
+                    fail(Status.INTERNAL.withDescription(e.getMessage()));
+                }
+            }
+
+            private void flush() {
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                for (LedgerTransferResult result : ledgerService.applyTransfers(List.copyOf(chunk))) {
+                    responseObserver.onNext(TransferResult.newBuilder()
+                            .setTransferId(result.getTransferId())
+                            .setOutcome(TransferOutcome.valueOf(result.getOutcome().name()))
+                            .build());
+                }
+                chunk.clear();
+            }
+
+            private void fail(Status status) {
+                failed = true;
+                responseObserver.onError(status.asRuntimeException());
+            }
+        };
+    }
+
+    @Override
+    public void getAccount(GetAccountRequest request, StreamObserver<Account> responseObserver) {
+        AccountView account;
+        try {
+            account = ledgerService.getAccount(request.getAccountId());
+        } catch (AccountNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(Account.newBuilder()
+                .setId(account.getId())
+                .setBalanceMinorUnits(account.getBalance().getMinorUnits())
+                .setBalanceScale(account.getBalance().getScale())
+                .setVersion(account.getVersion() == null ? 0 : account.getVersion())
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    // The same checks the REST API makes with Bean Validation.
+    private static LedgerTransferRequest toRequest(TransferPosting posting) {
+        if (posting.getTransferId().isEmpty()) {
+            throw new IllegalArgumentException("Transfer ID cannot be empty");
+        }
+        if (posting.getAmountMinorUnits() <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        BigDecimal amount = Money.ofMinor(posting.getAmountMinorUnits(), posting.getAmountScale()).toBigDecimal();
+        if (amount.stripTrailingZeros().scale() > Money.DEFAULT_SCALE) {
+            throw new IllegalArgumentException("Transfer amount must have at most 2 decimal places");
+        }
+        return new LedgerTransferRequest(posting.getTransferId(), posting.getFromAccountId(), posting.getToAccountId(), amount);
+    }
+}
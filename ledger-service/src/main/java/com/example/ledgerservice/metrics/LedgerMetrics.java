@@ -0,0 +1,99 @@
+package com.example.ledgerservice.metrics;
+
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters of the posting hot path. Every stage is a {@code ledger.stage} timer tagged with its
+ * {@code stage}: {@code lock_wait} (acquiring account and bucket locks), {@code balance_update} (flushing the new
+ * balances) and {@code entry_insert} (inserting the ledger entries). Timers and outcome counters are registered up
+ * front, and each error counter the first time its exception type is seen, so recording does no registry lookup;
+ * percentile histograms are enabled in configuration.
+ * <p>
+ * Postings are counted as {@code ledger.transfer.outcomes} by {@link LedgerTransferOutcome}, and failures as
+ * {@code ledger.transfer.errors} by exception type. Optimistic attempts that lost to a concurrent update are counted as
+ * {@code ledger.optimistic.conflicts}, and transfers handed to the locking path after repeated conflicts as
+ * {@code ledger.optimistic.fallbacks}.
+ */
+@Component
+public class LedgerMetrics {
+
+    public static final String STAGE_TIMER = "ledger.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer lockWait;
+    private final Timer balanceUpdate;
+    private final Timer entryInsert;
+    private final Counter optimisticConflicts;
+    private final Counter optimisticFallbacks;
+    private final Map<LedgerTransferOutcome, Counter> outcomes = new EnumMap<>(LedgerTransferOutcome.class);
+    private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+    public LedgerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lockWait = stageTimer(meterRegistry, "lock_wait");
+        this.balanceUpdate = stageTimer(meterRegistry, "balance_update");
+        this.entryInsert = stageTimer(meterRegistry, "entry_insert");
+        this.optimisticConflicts = Counter.builder("ledger.optimistic.conflicts")
+                .description("Optimistic transfer attempts that found an account changed and were retried")
+                .register(meterRegistry);
+        this.optimisticFallbacks = Counter.builder("ledger.optimistic.fallbacks")
+                .description("Transfers applied with row locks after repeated optimistic conflicts")
+                .register(meterRegistry);
+        for (LedgerTransferOutcome outcome : LedgerTransferOutcome.values()) {
+            outcomes.put(outcome, Counter.builder("ledger.transfer.outcomes")
+                    .description("Postings by outcome")
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void timeBalanceUpdate(Runnable update) {
+        balanceUpdate.record(update);
+    }
+
+    public <T> T timeBalanceUpdate(Supplier<T> update) {
+        return balanceUpdate.record(update);
+    }
+
+    public void timeEntryInsert(Runnable insert) {
+        entryInsert.record(insert);
+    }
+
+    public void recordOptimisticConflict() {
+        optimisticConflicts.increment();
+    }
+
+    public void recordOptimisticFallback() {
+        optimisticFallbacks.increment();
+    }
+
+    public void recordOutcome(LedgerTransferOutcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    public void recordError(Throwable error) {
+        errors.computeIfAbsent(error.getClass(),
+                type -> meterRegistry.counter("ledger.transfer.errors", "exception", type.getSimpleName())).increment();
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of applying a posting")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
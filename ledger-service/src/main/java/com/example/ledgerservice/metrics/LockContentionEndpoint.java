@@ -0,0 +1,35 @@
+package com.example.ledgerservice.metrics;
+
+import com.example.ledgerservice.dto.HotAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/lockcontention}: the accounts whose locks were waited on longest recently, most contended first.
+ * {@code ?limit=} caps the list (20 by default); a DELETE starts the ranking afresh.
+ */
+@Component
+@Endpoint(id = "lockcontention")
+@RequiredArgsConstructor
+public class LockContentionEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final LockContentionProfiler lockContentionProfiler;
+
+    @ReadOperation
+    public List<HotAccount> hottestAccounts(@Nullable Integer limit) {
+        return lockContentionProfiler.hottestAccounts(limit == null ? DEFAULT_LIMIT : Math.max(1, limit));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        lockContentionProfiler.reset();
+    }
+}
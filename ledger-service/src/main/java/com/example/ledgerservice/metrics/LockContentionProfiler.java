@@ -0,0 +1,117 @@
+package com.example.ledgerservice.metrics;
+
+import com.example.ledgerservice.dto.HotAccount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@code PESSIMISTIC_WRITE} lock acquisitions wait, and which accounts they wait for. Every
+ * acquisition is timed as {@code ledger.lock.wait}, tagged {@code lock=account} for account rows and
+ * {@code lock=bucket} for balance buckets. Waits of at least {@code ledger.contention.min-wait} are added to a
+ * {@link SpaceSavingSketch} of {@code ledger.contention.top-k} accounts weighted by time waited, so memory stays bounded
+ * however many accounts there are. Account rows are locked many per query, so such a wait is charged to every account
+ * of the query; bucket waits are per account.
+ * <p>
+ * Weights halve every {@code ledger.contention.half-life}, so the ranking follows current load. The hottest
+ * {@code ledger.contention.exported-accounts} are published as the {@code ledger.lock.contention.wait} gauge tagged with
+ * {@code account}; the full ranking is served by the {@code lockcontention} Actuator endpoint.
+ */
+@Component
+public class LockContentionProfiler {
+
+    private final SpaceSavingSketch sketch;
+    private final Timer accountLockWait;
+    private final Timer bucketLockWait;
+    private final long minWaitNanos;
+    private final int exportedAccounts;
+    private final MultiGauge hotAccountGauge;
+
+    public LockContentionProfiler(MeterRegistry meterRegistry,
+                                  @Value("${ledger.contention.top-k}") int topK,
+                                  @Value("${ledger.contention.min-wait}") Duration minWait,
+                                  @Value("${ledger.contention.exported-accounts}") int exportedAccounts) {
+        this.sketch = new SpaceSavingSketch(topK);
+        this.accountLockWait = lockTimer(meterRegistry, "account");
+        this.bucketLockWait = lockTimer(meterRegistry, "bucket");
+        this.minWaitNanos = minWait.toNanos();
+        this.exportedAccounts = exportedAccounts;
+        this.hotAccountGauge = MultiGauge.builder("ledger.lock.contention.wait")
+                .description("Recent time spent waiting for the locks of the most contended accounts")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records one query that locked the rows of {@code accountIds}.
+     */
+    public void recordAccountLocks(Collection<Long> accountIds, long waitNanos) {
+        accountLockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos >= minWaitNanos) {
+            accountIds.forEach(accountId -> sketch.add(accountId, waitNanos));
+        }
+    }
+
+    /**
+     * Records one query that locked balance buckets of {@code accountId}.
+     */
+    public void recordBucketLocks(Long accountId, long waitNanos) {
+        bucketLockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos >= minWaitNanos) {
+            sketch.add(accountId, waitNanos);
+        }
+    }
+
+    /**
+     * The {@code limit} accounts that waited longest for their locks recently, most contended first.
+     */
+    public List<HotAccount> hottestAccounts(int limit) {
+        return sketch.top(limit).stream()
+                .map(entry -> HotAccount.builder()
+                        .accountId(entry.key())
+                        .waitMillis(toMillis(entry.weight()))
+                        .waitErrorMillis(toMillis(entry.error()))
+                        .contendedLocks(entry.count())
+                        .maxWaitMillis(toMillis(entry.max()))
+                        .build())
+                .toList();
+    }
+
+    public void reset() {
+        sketch.clear();
+        publish();
+    }
+
+    @Scheduled(fixedRateString = "${ledger.contention.half-life}", initialDelayString = "${ledger.contention.half-life}")
+    public void decay() {
+        sketch.decay();
+    }
+
+    @Scheduled(fixedRateString = "${ledger.contention.publish-interval}")
+    public void publish() {
+        hotAccountGauge.register(sketch.top(exportedAccounts).stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("account", Long.toString(entry.key())),
+                        entry.weight() / 1e9))
+                .toList(), true);
+    }
+
+    private static Timer lockTimer(MeterRegistry meterRegistry, String lock) {
+        return Timer.builder("ledger.lock.wait")
+                .description("Time taken to acquire pessimistic row locks")
+                .tag("lock", lock)
+                .register(meterRegistry);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ledgerservice.metrics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving sketch of the heaviest keys in a stream, in at most {@code capacity} counters. A key that is
+ * not tracked while the sketch is full replaces the lightest one and inherits its weight, which is then recorded as
+ * that key's possible overestimate. Any key whose true weight exceeds 1/capacity of the total is guaranteed to be
+ * tracked, so the few genuinely hot keys are always reported however many cold keys pass through.
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void add(long key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter(key, 0);
+            } else {
+                // The scan is O(capacity), but only runs for keys that are not hot already.
+                Counter lightest = counters.values().stream().min(Comparator.comparingLong(c -> c.weight)).orElseThrow();
+                counters.remove(lightest.key);
+                counter = new Counter(key, lightest.weight);
+            }
+            counters.put(key, counter);
+        }
+        counter.weight += weight;
+        counter.count++;
+        counter.max = Math.max(counter.max, weight);
+    }
+
+    /**
+     * The {@code limit} heaviest keys, heaviest first.
+     */
+    public synchronized List<Entry> top(int limit) {
+        return counters.values().stream()
+                .sorted(Comparator.comparingLong((Counter c) -> c.weight).reversed())
+                .limit(limit)
+                .map(c -> new Entry(c.key, c.weight, c.error, c.count, c.max))
+                .toList();
+    }
+
+    /**
+     * Halves every weight and drops the keys left with none, so that past contention fades out.
+     */
+    public synchronized void decay() {
+        for (Iterator<Counter> it = counters.values().iterator(); it.hasNext(); ) {
+            Counter counter = it.next();
+            counter.weight /= 2;
+            counter.error /= 2;
+            counter.count /= 2;
+            if (counter.weight == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+    }
+
+    /**
+     * A tracked key: its estimated total weight (at most {@code error} too high), how many samples it received since
+     * it was last admitted, and its largest single sample.
+     */
+    public record Entry(long key, long weight, long error, long count, long max) {
+    }
+
+    private static final class Counter {
+        private final long key;
+        private long weight;
+        private long error;
+        private long count;
+        private long max;
+
+        private Counter(long key, long inheritedWeight) {
+            this.key = key;
+            this.weight = inheritedWeight;
+            this.error = inheritedWeight;
+        }
+    }
+}
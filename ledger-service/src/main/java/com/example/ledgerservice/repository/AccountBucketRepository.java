@@ -0,0 +1,28 @@
+package com.example.ledgerservice.repository;
+
+import com.example.ledgerservice.domain.AccountBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBucketRepository extends JpaRepository<AccountBucket, Long> {
+
+    List<AccountBucket> findByAccountId(Long accountId);
+
+    // Buckets are locked in ascending index order, after all account rows (see AccountLocker).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountBucket b WHERE b.accountId = :accountId ORDER BY b.bucketIndex")
+    List<AccountBucket> findAllByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountBucket b WHERE b.accountId = :accountId AND b.bucketIndex = :bucketIndex")
+    Optional<AccountBucket> findByAccountIdAndBucketIndexForUpdate(@Param("accountId") Long accountId,
+                                                                   @Param("bucketIndex") int bucketIndex);
+}
@@ -4,17 +4,35 @@ import com.example.ledgerservice.domain.Account;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+    // Rows are locked in ascending id order so that transactions touching overlapping accounts cannot deadlock.
+    // Sharded accounts are left unlocked: their balance lives in bucket rows, which are locked instead.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT a FROM Account a WHERE a.id = :id")
-    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids AND a.bucketCount = 0 ORDER BY a.id")
+    List<Account> findAllUnshardedByIdForUpdate(@Param("ids") Collection<Long> ids);
 
     Optional<Account> findById(Long id);
+
+    // Optimistic transfers: each update applies only if the account still has the version read before it, and a debit
+    // only while the funds suffice. 0 rows updated means another transfer got there first.
+    @Modifying
+    @Query(value = "UPDATE accounts SET balance = balance - :amount, version = version + 1 "
+            + "WHERE id = :id AND version = :version AND balance >= :amount AND bucket_count = 0", nativeQuery = true)
+    int debitIfUnchanged(@Param("id") Long id, @Param("version") long version, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE accounts SET balance = balance + :amount, version = version + 1 "
+            + "WHERE id = :id AND version = :version AND bucket_count = 0", nativeQuery = true)
+    int creditIfUnchanged(@Param("id") Long id, @Param("version") long version, @Param("amount") BigDecimal amount);
 }
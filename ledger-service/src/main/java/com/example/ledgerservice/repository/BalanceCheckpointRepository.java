@@ -0,0 +1,14 @@
+package com.example.ledgerservice.repository;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    List<BalanceCheckpoint> findByDriftNotOrderByAccountId(Money drift);
+}
@@ -1,12 +1,25 @@
 package com.example.ledgerservice.repository;
 
 import com.example.ledgerservice.domain.LedgerEntry;
+import com.example.ledgerservice.dto.LedgerEntryView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
     boolean existsByTransferId(String transferId);
+
+    @Query("SELECT DISTINCT e.transferId FROM LedgerEntry e WHERE e.transferId IN :transferIds")
+    List<String> findExistingTransferIds(@Param("transferIds") Collection<String> transferIds);
+
+    // Keyset page over idx_account_entry, read straight into views without managed entities.
+    @Query("SELECT new com.example.ledgerservice.dto.LedgerEntryView(e.id, e.transferId, e.accountId, e.amount, e.type, e.createdAt) "
+            + "FROM LedgerEntry e WHERE e.accountId = :accountId AND e.id > :afterId ORDER BY e.id")
+    List<LedgerEntryView> findStatementPage(@Param("accountId") Long accountId, @Param("afterId") long afterId, Limit limit);
 }
@@ -0,0 +1,92 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.dto.AccountView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Committed balances of regular accounts, keyed by account id and versioned by {@link Account#getVersion()}. An
+ * entry is only ever replaced by one of the same or a newer version, so a reader that loaded an account just before a
+ * transfer committed cannot put back the balance the transfer replaced. Writers publish their accounts once their
+ * transaction has committed, so rolled-back balances are never served.
+ * <p>
+ * Sharded accounts are not cached: a credit to one of their buckets leaves the account row and its version untouched.
+ * Entries also expire after {@code ledger.balance-cache.ttl}, which bounds staleness for changes made outside this
+ * instance. Hits, misses and evictions are exported as the {@code cache.*} metrics with {@code cache=account-balances}.
+ */
+@Component
+public class AccountBalanceCache {
+
+    private final Cache<Long, AccountView> balances;
+
+    public AccountBalanceCache(MeterRegistry meterRegistry,
+                               @Value("${ledger.balance-cache.maximum-size}") long maximumSize,
+                               @Value("${ledger.balance-cache.ttl}") Duration ttl) {
+        this.balances = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<Long, AccountView>build(), "account-balances");
+    }
+
+    public Optional<AccountView> get(Long accountId) {
+        return Optional.ofNullable(balances.getIfPresent(accountId));
+    }
+
+    /**
+     * The cached balances among {@code accountIds}; absent ids are not in the result.
+     */
+    public Map<Long, AccountView> getAll(Collection<Long> accountIds) {
+        return balances.getAllPresent(accountIds);
+    }
+
+    /**
+     * Caches a balance read from the database, unless a newer version is cached already.
+     */
+    public void put(Account account, AccountView view) {
+        if (account.isSharded() || view.getVersion() == null) {
+            return;
+        }
+        balances.asMap().merge(view.getId(), view,
+                (cached, loaded) -> cached.getVersion() > loaded.getVersion() ? cached : loaded);
+    }
+
+    /**
+     * Caches the balances of accounts written by the current transaction once it commits, when their versions have
+     * been incremented by the flush. Without a transaction they are cached at once.
+     */
+    public void putAfterCommit(Collection<Account> accounts) {
+        List<Account> written = List.copyOf(accounts);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            written.forEach(this::put);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                written.forEach(AccountBalanceCache.this::put);
+            }
+        });
+    }
+
+    private void put(Account account) {
+        put(account, AccountView.builder()
+                .id(account.getId())
+                .balance(account.getBalance())
+                .version(account.getVersion())
+                .build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.domain.AccountBucket;
+import com.example.ledgerservice.metrics.LockContentionProfiler;
+import com.example.ledgerservice.repository.AccountBucketRepository;
+import com.example.ledgerservice.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Acquires pessimistic row locks on accounts in a single round trip.
+ * <p>
+ * Every caller locks in ascending account id order, so two transactions touching the same accounts
+ * (e.g. A&rarr;B and B&rarr;A) queue behind each other instead of deadlocking. The locks are held
+ * until the surrounding transaction ends.
+ * <p>
+ * Sharded accounts are not locked as rows. Their balance buckets are locked afterwards by
+ * {@link #lockBuckets}, again in ascending account id and bucket index order, so the two phases cannot deadlock
+ * against each other either.
+ * <p>
+ * Every locking query is timed by the {@link LockContentionProfiler}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountLocker {
+
+    private final AccountRepository accountRepository;
+    private final AccountBucketRepository accountBucketRepository;
+    private final LockContentionProfiler lockContentionProfiler;
+
+    /**
+     * Locks the given accounts and returns the ones that exist, keyed by id in ascending order.
+     * Missing ids are simply absent from the result; sharded accounts are returned without a lock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Account> lockAll(Collection<Long> accountIds) {
+        Set<Long> ids = new TreeSet<>(accountIds);
+        Map<Long, Account> accounts = new TreeMap<>();
+        long lockStart = System.nanoTime();
+        List<Account> locked = accountRepository.findAllUnshardedByIdForUpdate(ids);
+        lockContentionProfiler.recordAccountLocks(locked.stream().map(Account::getId).toList(), System.nanoTime() - lockStart);
+        for (Account account : locked) {
+            accounts.put(account.getId(), account);
+        }
+        if (accounts.size() < ids.size()) {
+            // The rest are either sharded or do not exist.
+            List<Long> missing = ids.stream().filter(id -> !accounts.containsKey(id)).toList();
+            accountRepository.findAllById(missing).forEach(account -> accounts.put(account.getId(), account));
+        }
+        return new LinkedHashMap<>(accounts);
+    }
+
+    /**
+     * Locks the balance buckets of the sharded accounts among {@code accounts}: every bucket of an account that may
+     * be debited, and one random bucket of an account that is only credited. Call after {@link #lockAll}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, BalanceBuckets> lockBuckets(Collection<Account> accounts, Set<Long> debitedAccountIds) {
+        Map<Long, BalanceBuckets> buckets = new LinkedHashMap<>();
+        accounts.stream()
+                .filter(Account::isSharded)
+                .sorted(Comparator.comparing(Account::getId))
+                .forEach(account -> buckets.put(account.getId(), new BalanceBuckets(
+                        debitedAccountIds.contains(account.getId()) ? lockAllBuckets(account) : lockRandomBucket(account))));
+        return buckets;
+    }
+
+    private List<AccountBucket> lockAllBuckets(Account account) {
+        long lockStart = System.nanoTime();
+        List<AccountBucket> buckets = accountBucketRepository.findAllByAccountIdForUpdate(account.getId());
+        lockContentionProfiler.recordBucketLocks(account.getId(), System.nanoTime() - lockStart);
+        return buckets;
+    }
+
+    private List<AccountBucket> lockRandomBucket(Account account) {
+        int bucketIndex = ThreadLocalRandom.current().nextInt(account.getBucketCount());
+        long lockStart = System.nanoTime();
+        List<AccountBucket> bucket = accountBucketRepository.findByAccountIdAndBucketIndexForUpdate(account.getId(), bucketIndex)
+                .stream().toList();
+        lockContentionProfiler.recordBucketLocks(account.getId(), System.nanoTime() - lockStart);
+        return bucket;
+    }
+}
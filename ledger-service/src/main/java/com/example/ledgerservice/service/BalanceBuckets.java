@@ -0,0 +1,47 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.AccountBucket;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The locked balance buckets of one sharded account within a transaction. Credits land on a random bucket. Debits
+ * start at a random bucket and sweep the following ones when it does not cover the amount.
+ */
+public final class BalanceBuckets {
+
+    private final List<AccountBucket> buckets;
+
+    BalanceBuckets(List<AccountBucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    public Money total() {
+        Money total = Money.zero();
+        for (AccountBucket bucket : buckets) {
+            total = total.plus(bucket.getBalance());
+        }
+        return total;
+    }
+
+    public void credit(Money amount) {
+        AccountBucket bucket = buckets.get(ThreadLocalRandom.current().nextInt(buckets.size()));
+        bucket.setBalance(bucket.getBalance().plus(amount));
+    }
+
+    /**
+     * Takes the amount from the buckets; the caller has checked that {@link #total()} covers it.
+     */
+    public void debit(Money amount) {
+        Money remaining = amount;
+        int start = ThreadLocalRandom.current().nextInt(buckets.size());
+        for (int i = 0; i < buckets.size() && remaining.signum() > 0; i++) {
+            AccountBucket bucket = buckets.get((start + i) % buckets.size());
+            Money taken = bucket.getBalance().isLessThan(remaining) ? bucket.getBalance() : remaining;
+            bucket.setBalance(bucket.getBalance().minus(taken));
+            remaining = remaining.minus(taken);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.domain.BalanceCheckpoint;
+import com.example.ledgerservice.dto.AccountDrift;
+import com.example.ledgerservice.dto.ReconciliationReport;
+import com.example.ledgerservice.repository.BalanceCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks account balances against their ledger entries incrementally. Each account has a {@link BalanceCheckpoint}
+ * holding the balance its entries add up to as of its last reconciled entry; a run only sums the entries after that
+ * entry, on the {@code (accountId, id)} index, and skips accounts that have none. The cost of a run therefore follows
+ * the activity since the previous one rather than the size of the ledger.
+ * <p>
+ * Runs every {@code ledger.reconciliation.interval}. The account id space is split into ranges of
+ * {@code ledger.reconciliation.range-size} ids that a fork/join pool of {@code ledger.reconciliation.parallelism}
+ * workers reconciles in parallel. Each account is checked in its own short transaction holding the same locks as a
+ * debit of it, so no transfer of the account is in flight while its balance and entries are compared. Entry ids are
+ * assigned under those locks too, so an entry committed later always has a higher id than the checkpoint.
+ * <p>
+ * Accounts created before checkpoints existed are adopted on their first run with their current balance taken as
+ * correct. Drift is exported as {@code ledger.reconciliation.drifted.accounts} and
+ * {@code ledger.reconciliation.drift.total}, and listed by {@link #report()}.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
+@Slf4j
+public class BalanceReconciler {
+
+    private static final String CANDIDATES_SQL = "SELECT a.id FROM accounts a "
+            + "LEFT JOIN balance_checkpoints c ON c.account_id = a.id "
+            + "WHERE a.id BETWEEN ? AND ? AND (c.account_id IS NULL OR EXISTS ("
+            + "SELECT 1 FROM ledger_entries e WHERE e.account_id = a.id AND e.id > c.last_entry_id)) "
+            + "ORDER BY a.id";
+    private static final String ENTRIES_SQL = "SELECT COALESCE(SUM(amount), 0), COALESCE(MAX(id), ?), COUNT(*) "
+            + "FROM ledger_entries WHERE account_id = ? AND id > ?";
+    private static final String DRIFT_SQL = "SELECT COUNT(*), COALESCE(SUM(ABS(drift)), 0) "
+            + "FROM balance_checkpoints WHERE drift <> 0";
+
+    private final AccountLocker accountLocker;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+    private final Timer runTimer;
+    private final Counter accountsChecked;
+    private final Counter entriesVerified;
+    private final Counter driftDetected;
+    private final Counter failures;
+    private final AtomicLong driftedAccounts = new AtomicLong();
+    private final AtomicReference<BigDecimal> totalDrift = new AtomicReference<>(BigDecimal.ZERO);
+    private volatile ReconciliationReport lastRun = new ReconciliationReport();
+
+    public BalanceReconciler(AccountLocker accountLocker, BalanceCheckpointRepository checkpointRepository,
+                             DataSource dataSource, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${ledger.reconciliation.parallelism}") int parallelism,
+                             @Value("${ledger.reconciliation.range-size}") int rangeSize) {
+        this.accountLocker = accountLocker;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism);
+        this.rangeSize = rangeSize;
+        this.runTimer = Timer.builder("ledger.reconciliation.run")
+                .description("Duration of balance reconciliation runs")
+                .register(meterRegistry);
+        this.accountsChecked = Counter.builder("ledger.reconciliation.accounts.checked")
+                .description("Accounts whose new ledger entries were reconciled")
+                .register(meterRegistry);
+        this.entriesVerified = Counter.builder("ledger.reconciliation.entries.verified")
+                .description("Ledger entries summed by reconciliation")
+                .register(meterRegistry);
+        this.driftDetected = Counter.builder("ledger.reconciliation.drift.detected")
+                .description("Reconciliations that found an account's drift had changed")
+                .register(meterRegistry);
+        this.failures = Counter.builder("ledger.reconciliation.failures")
+                .description("Accounts that could not be reconciled and are retried on the next run")
+                .register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.drifted.accounts", driftedAccounts, AtomicLong::get)
+                .description("Accounts whose balance disagrees with their ledger entries")
+                .register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.drift.total", totalDrift, drift -> drift.get().doubleValue())
+                .description("Sum of the absolute drift over all drifting accounts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.reconciliation.interval}", initialDelayString = "${ledger.reconciliation.interval}")
+    public void scheduledRun() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Balance reconciliation run failed", e);
+        }
+    }
+
+    /**
+     * Reconciles every account with entries after its checkpoint. Runs do not overlap.
+     */
+    public synchronized ReconciliationReport reconcile() {
+        long startedAt = System.nanoTime();
+        RunTotals totals = new RunTotals();
+        long[] idBounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM accounts",
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+        if (idBounds != null) {
+            pool.invoke(new ReconcileRange(idBounds[0], idBounds[1], totals));
+        }
+        jdbcTemplate.query(DRIFT_SQL, rs -> {
+            driftedAccounts.set(rs.getLong(1));
+            totalDrift.set(rs.getBigDecimal(2));
+        });
+        long elapsedNanos = System.nanoTime() - startedAt;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        lastRun = ReconciliationReport.builder()
+                .lastRunAt(LocalDateTime.now())
+                .lastRunMillis(elapsedNanos / 1_000_000)
+                .accountsChecked(totals.accounts.sum())
+                .entriesVerified(totals.entries.sum())
+                .failures(totals.failures.sum())
+                .build();
+        if (driftedAccounts.get() > 0) {
+            log.warn("Balance reconciliation: {} accounts drifting by {} in total", driftedAccounts.get(), totalDrift.get());
+        }
+        return report();
+    }
+
+    /**
+     * The latest run and the accounts drifting as of their last check.
+     */
+    public ReconciliationReport report() {
+        List<AccountDrift> drifts = checkpointRepository.findByDriftNotOrderByAccountId(Money.zero()).stream()
+                .map(checkpoint -> AccountDrift.builder()
+                        .accountId(checkpoint.getAccountId())
+                        .accountBalance(checkpoint.getLedgerBalance().plus(checkpoint.getDrift()))
+                        .ledgerBalance(checkpoint.getLedgerBalance())
+                        .drift(checkpoint.getDrift())
+                        .lastEntryId(checkpoint.getLastEntryId())
+                        .checkedAt(checkpoint.getCheckedAt())
+                        .build())
+                .toList();
+        ReconciliationReport run = lastRun;
+        return new ReconciliationReport(run.getLastRunAt(), run.getLastRunMillis(), run.getAccountsChecked(),
+                run.getEntriesVerified(), run.getFailures(), drifts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void reconcileRange(long fromId, long toId, RunTotals totals) {
+        for (Long accountId : jdbcTemplate.queryForList(CANDIDATES_SQL, Long.class, fromId, toId)) {
+            try {
+                long entries = transactionTemplate.execute(status -> reconcileAccount(accountId));
+                totals.accounts.increment();
+                totals.entries.add(entries);
+                accountsChecked.increment();
+                entriesVerified.increment(entries);
+            } catch (RuntimeException e) {
+                // Its checkpoint is unchanged, so the next run picks the account up again.
+                log.warn("Could not reconcile account {}: {}", accountId, e.getMessage());
+                totals.failures.increment();
+                failures.increment();
+            }
+        }
+    }
+
+    private long reconcileAccount(Long accountId) {
+        Account account = accountLocker.lockAll(List.of(accountId)).get(accountId);
+        if (account == null) {
+            return 0;
+        }
+        Money balance = account.isSharded()
+                ? accountLocker.lockBuckets(List.of(account), Set.of(accountId)).get(accountId).total()
+                : account.getBalance();
+        BalanceCheckpoint checkpoint = checkpointRepository.findById(accountId).orElse(null);
+        long afterId = checkpoint == null ? 0 : checkpoint.getLastEntryId();
+        EntrySum entries = jdbcTemplate.queryForObject(ENTRIES_SQL, (rs, rowNum) ->
+                new EntrySum(Money.of(rs.getBigDecimal(1)), rs.getLong(2), rs.getLong(3)), afterId, accountId, afterId);
+        if (checkpoint == null) {
+            // Predates checkpoints: its opening balance is unknown, so its current balance is taken as correct.
+            log.info("Adopting account {} into reconciliation at balance {}", accountId, balance);
+            checkpoint = BalanceCheckpoint.builder()
+                    .accountId(accountId)
+                    .ledgerBalance(balance)
+                    .drift(Money.zero())
+                    .build();
+        } else {
+            Money ledgerBalance = checkpoint.getLedgerBalance().plus(entries.sum());
+            Money drift = balance.minus(ledgerBalance);
+            if (drift.compareTo(checkpoint.getDrift()) != 0) {
+                log.warn("Account {} balance {} disagrees with its ledger entries ({}) by {}",
+                        accountId, balance, ledgerBalance, drift);
+                driftDetected.increment();
+            }
+            checkpoint.setLedgerBalance(ledgerBalance);
+            checkpoint.setDrift(drift);
+        }
+        checkpoint.setLastEntryId(entries.lastEntryId());
+        checkpoint.setCheckedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return entries.count();
+    }
+
+    private record EntrySum(Money sum, long lastEntryId, long count) {
+    }
+
+    private static final class RunTotals {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder entries = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    private final class ReconcileRange extends RecursiveAction {
+
+        private final long fromId;
+        private final long toId;
+        private final RunTotals totals;
+
+        private ReconcileRange(long fromId, long toId, RunTotals totals) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId < rangeSize) {
+                reconcileRange(fromId, toId, totals);
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new ReconcileRange(fromId, middle, totals), new ReconcileRange(middle + 1, toId, totals));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
+import com.example.ledgerservice.engine.AccountSnapshot;
+import com.example.ledgerservice.engine.InMemoryLedgerEngine;
+import com.example.ledgerservice.engine.TransferCommand;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link LedgerService} backed by the single-writer {@link InMemoryLedgerEngine}, enabled with
+ * {@code ledger.engine=in-memory}. Amounts cross the engine boundary as {@code long} minor units.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryLedgerService implements LedgerService {
+
+    private final InMemoryLedgerEngine engine;
+
+    @Override
+    public AccountView createAccount(CreateAccountRequest request) {
+        AccountView account = toAccountView(await(engine.createAccount(toMinorUnits(request.getInitialBalance()))));
+        log.info("Created account with ID: {}", account.getId());
+        return account;
+    }
+
+    @Override
+    public AccountView getAccount(Long id) {
+        return toAccountView(await(engine.getAccount(id)));
+    }
+
+    @Override
+    public List<AccountView> getAccounts(Collection<Long> ids) {
+        List<AccountView> accounts = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            try {
+                accounts.add(getAccount(id));
+            } catch (AccountNotFoundException e) {
+                // Unknown ids are left out of a bulk read.
+            }
+        }
+        return accounts;
+    }
+
+    @Override
+    public void applyTransfer(LedgerTransferRequest request) {
+        await(engine.applyTransfer(toCommand(request)));
+    }
+
+    @Override
+    public List<LedgerTransferResult> applyTransfers(List<LedgerTransferRequest> requests) {
+        List<LedgerTransferOutcome> outcomes = await(engine.applyTransfers(requests.stream().map(this::toCommand).toList()));
+        List<LedgerTransferResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new LedgerTransferResult(requests.get(i).getTransferId(), outcomes.get(i)));
+        }
+        return results;
+    }
+
+    private TransferCommand toCommand(LedgerTransferRequest request) {
+        return new TransferCommand(request.getTransferId(), request.getFromAccountId(), request.getToAccountId(),
+                toMinorUnits(request.getAmount()));
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return Money.of(amount).getMinorUnits();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AccountView toAccountView(AccountSnapshot snapshot) {
+        return AccountView.builder()
+                .id(snapshot.getId())
+                .balance(Money.ofMinor(snapshot.getBalance(), Money.DEFAULT_SCALE))
+                .version(snapshot.getVersion())
+                .build();
+    }
+}
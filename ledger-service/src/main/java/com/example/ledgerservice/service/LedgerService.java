@@ -3,10 +3,17 @@ package com.example.ledgerservice.service;
 import com.example.ledgerservice.dto.AccountView;
 import com.example.ledgerservice.dto.CreateAccountRequest;
 import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
 import com.example.ledgerservice.domain.Account;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface LedgerService {
     AccountView createAccount(CreateAccountRequest request);
     AccountView getAccount(Long id);
+    // The accounts among ids, in the order given and without duplicates; unknown ids are left out.
+    List<AccountView> getAccounts(Collection<Long> ids);
     void applyTransfer(LedgerTransferRequest request);
+    List<LedgerTransferResult> applyTransfers(List<LedgerTransferRequest> requests);
 }
@@ -1,104 +1,327 @@
 package com.example.ledgerservice.service;
 
+import com.example.ledger.money.Money;
 import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.domain.AccountBucket;
+import com.example.ledgerservice.domain.BalanceCheckpoint;
 import com.example.ledgerservice.domain.LedgerEntry;
 import com.example.ledgerservice.domain.LedgerEntryType;
 import com.example.ledgerservice.dto.AccountView;
 import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
 import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
 import com.example.ledgerservice.exception.AccountNotFoundException;
 import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.metrics.LedgerMetrics;
+import com.example.ledgerservice.repository.AccountBucketRepository;
 import com.example.ledgerservice.repository.AccountRepository;
+import com.example.ledgerservice.repository.BalanceCheckpointRepository;
 import com.example.ledgerservice.repository.LedgerEntryRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
+/**
+ * {@link LedgerService} on JPA with pessimistic row locks. With {@code ledger.concurrency.strategy=optimistic}, single
+ * transfers first try the {@link OptimisticTransferApplier} and take the row locks only when it declines. Balance reads are served from the
+ * {@link AccountBalanceCache} where possible and otherwise in a short read-only transaction of their own, so polling
+ * a balance does not hold a pooled connection unless it has to.
+ */
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
 @Slf4j
 public class LedgerServiceImpl implements LedgerService {
 
     private final AccountRepository accountRepository;
+    private final AccountBucketRepository accountBucketRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountLocker accountLocker;
+    private final AccountBalanceCache accountBalanceCache;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final LedgerMetrics ledgerMetrics;
+    private final OptimisticTransferApplier optimisticTransferApplier;
+    private final TransactionOperations lockingTransaction;
+    private final TransactionOperations readOnlyTransaction;
+
+    public LedgerServiceImpl(AccountRepository accountRepository, AccountBucketRepository accountBucketRepository,
+                             LedgerEntryRepository ledgerEntryRepository, AccountLocker accountLocker,
+                             AccountBalanceCache accountBalanceCache,
+                             BalanceCheckpointRepository balanceCheckpointRepository, LedgerMetrics ledgerMetrics,
+                             @Nullable OptimisticTransferApplier optimisticTransferApplier,
+                             PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.accountBucketRepository = accountBucketRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.accountLocker = accountLocker;
+        this.accountBalanceCache = accountBalanceCache;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.ledgerMetrics = ledgerMetrics;
+        this.optimisticTransferApplier = optimisticTransferApplier;
+        this.lockingTransaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        this.readOnlyTransaction = readOnly;
+    }
 
     @Override
     @Transactional
     public AccountView createAccount(CreateAccountRequest request) {
+        Money initialBalance = Money.of(request.getInitialBalance());
+        int bucketCount = request.getBalanceBuckets() == null ? 0 : request.getBalanceBuckets();
         Account account = Account.builder()
-                .balance(request.getInitialBalance())
+                .balance(bucketCount == 0 ? initialBalance : Money.zero())
+                .bucketCount(bucketCount)
                 .build();
         account = accountRepository.save(account);
-        log.info("Created account with ID: {}", account.getId());
-        return toAccountView(account);
+        if (account.isSharded()) {
+            accountBucketRepository.saveAll(splitIntoBuckets(account.getId(), initialBalance, bucketCount));
+        }
+        // The opening balance is not a ledger entry, so reconciliation starts from it (see BalanceReconciler).
+        balanceCheckpointRepository.save(BalanceCheckpoint.builder()
+                .accountId(account.getId())
+                .ledgerBalance(initialBalance)
+                .lastEntryId(0)
+                .drift(Money.zero())
+                .checkedAt(LocalDateTime.now())
+                .build());
+        log.info("Created account with ID: {} ({} balance buckets)", account.getId(), bucketCount);
+        accountBalanceCache.putAfterCommit(List.of(account));
+        return toAccountView(account, initialBalance);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public AccountView getAccount(Long id) {
-        return accountRepository.findById(id)
-                .map(this::toAccountView)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + id));
+        return accountBalanceCache.get(id)
+                .orElseGet(() -> readOnlyTransaction.execute(status -> loadAccounts(List.of(id))).stream()
+                        .findFirst()
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + id)));
+    }
+
+    @Override
+    public List<AccountView> getAccounts(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, AccountView> views = new HashMap<>(accountBalanceCache.getAll(uniqueIds));
+        List<Long> misses = uniqueIds.stream().filter(id -> !views.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            // All misses are read in one query and one short transaction.
+            readOnlyTransaction.execute(status -> loadAccounts(misses))
+                    .forEach(view -> views.put(view.getId(), view));
+        }
+        return uniqueIds.stream().map(views::get).filter(Objects::nonNull).toList();
     }
 
     @Override
-    @Transactional(noRollbackFor = DataIntegrityViolationException.class)
     public void applyTransfer(LedgerTransferRequest request) {
         try {
-            Account fromAccount = accountRepository.findByIdForUpdate(request.getFromAccountId())
-                    .orElseThrow(() -> new AccountNotFoundException("From account not found: " + request.getFromAccountId()));
+            // Optimistic attempts commit or roll back on their own, so this method runs outside a transaction.
+            if (optimisticTransferApplier != null && optimisticTransferApplier.tryApply(request)) {
+                return;
+            }
+            lockingTransaction.executeWithoutResult(status -> applyTransferLocked(request));
+        } catch (RuntimeException e) {
+            ledgerMetrics.recordError(e);
+            throw e;
+        }
+    }
 
-            Account toAccount = accountRepository.findByIdForUpdate(request.getToAccountId())
-                    .orElseThrow(() -> new AccountNotFoundException("To account not found: " + request.getToAccountId()));
+    private void applyTransferLocked(LedgerTransferRequest request) {
+        long lockStart = System.nanoTime();
+        Map<Long, Account> accounts = accountLocker.lockAll(List.of(request.getFromAccountId(), request.getToAccountId()));
 
-            BigDecimal amount = request.getAmount();
+        Account fromAccount = Optional.ofNullable(accounts.get(request.getFromAccountId()))
+                .orElseThrow(() -> new AccountNotFoundException("From account not found: " + request.getFromAccountId()));
 
-            if (fromAccount.getBalance().compareTo(amount) < 0) {
-                throw new InsufficientFundsException("Insufficient funds in account: " + fromAccount.getId());
-            }
+        Account toAccount = Optional.ofNullable(accounts.get(request.getToAccountId()))
+                .orElseThrow(() -> new AccountNotFoundException("To account not found: " + request.getToAccountId()));
+
+        Map<Long, BalanceBuckets> buckets = accountLocker.lockBuckets(List.of(fromAccount, toAccount), Set.of(fromAccount.getId()));
+        ledgerMetrics.recordLockWait(System.nanoTime() - lockStart);
+
+        // Both account rows are locked, so any earlier attempt of this transfer has either committed or rolled back.
+        if (ledgerEntryRepository.existsByTransferId(request.getTransferId())) {
+            log.warn("Idempotent retry for transfer ID: {}. Transfer was already applied.", request.getTransferId());
+            ledgerMetrics.recordOutcome(LedgerTransferOutcome.DUPLICATE);
+            return;
+        }
 
-            fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-            toAccount.setBalance(toAccount.getBalance().add(amount));
+        Money amount = Money.of(request.getAmount());
 
+        if (balanceOf(fromAccount, buckets).isLessThan(amount)) {
+            throw new InsufficientFundsException("Insufficient funds in account: " + fromAccount.getId());
+        }
+
+        List<LedgerEntry> entries = moveFunds(request.getTransferId(), fromAccount, toAccount, amount, buckets);
+
+        // Balances and entries are flushed separately so that each write shows up as its own stage.
+        ledgerMetrics.timeBalanceUpdate(() -> {
             accountRepository.saveAll(List.of(fromAccount, toAccount));
+            accountRepository.flush();
+        });
+        ledgerMetrics.timeEntryInsert(() -> ledgerEntryRepository.saveAllAndFlush(entries));
+        accountBalanceCache.putAfterCommit(List.of(fromAccount, toAccount));
+        ledgerMetrics.recordOutcome(LedgerTransferOutcome.APPLIED);
 
-            LedgerEntry debitEntry = LedgerEntry.builder()
-                    .transferId(request.getTransferId())
-                    .accountId(fromAccount.getId())
-                    .amount(amount.negate())
-                    .type(LedgerEntryType.DEBIT)
-                    .build();
-
-            LedgerEntry creditEntry = LedgerEntry.builder()
-                    .transferId(request.getTransferId())
-                    .accountId(toAccount.getId())
-                    .amount(amount)
-                    .type(LedgerEntryType.CREDIT)
-                    .build();
-
-            ledgerEntryRepository.saveAll(List.of(debitEntry, creditEntry));
-
-            log.info("Applied transfer {}: {} from account {} to account {}",
-                    request.getTransferId(), amount, fromAccount.getId(), toAccount.getId());
-        } catch (DataIntegrityViolationException e) {
-            // This is a simplified check. A real-world app might inspect the exception more deeply.
-            if (e.getMessage() != null && e.getMessage().contains("IDX_TRANSFER_ID")) {
-                log.warn("Idempotent retry for transfer ID: {}. This is expected and will be suppressed.", request.getTransferId());
-                return; // Suppress the exception to fulfill idempotency.
-            }
-            throw e;
+        log.info("Applied transfer {}: {} from account {} to account {}",
+                request.getTransferId(), amount, fromAccount.getId(), toAccount.getId());
+    }
+
+    @Override
+    @Transactional
+    public List<LedgerTransferResult> applyTransfers(List<LedgerTransferRequest> requests) {
+        Set<Long> accountIds = new HashSet<>();
+        Set<Long> debitedAccountIds = new HashSet<>();
+        Set<String> transferIds = new HashSet<>();
+        for (LedgerTransferRequest request : requests) {
+            accountIds.add(request.getFromAccountId());
+            debitedAccountIds.add(request.getFromAccountId());
+            accountIds.add(request.getToAccountId());
+            transferIds.add(request.getTransferId());
+        }
+
+        // One round trip locks every account in the batch; duplicates are checked only once the locks are held.
+        long lockStart = System.nanoTime();
+        Map<Long, Account> accounts = accountLocker.lockAll(accountIds);
+        Map<Long, BalanceBuckets> buckets = accountLocker.lockBuckets(accounts.values(), debitedAccountIds);
+        ledgerMetrics.recordLockWait(System.nanoTime() - lockStart);
+        Set<String> appliedTransferIds = new HashSet<>(ledgerEntryRepository.findExistingTransferIds(transferIds));
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<LedgerTransferResult> results = new ArrayList<>(requests.size());
+        for (LedgerTransferRequest request : requests) {
+            LedgerTransferOutcome outcome = applyLeg(request, accounts, buckets, appliedTransferIds, entries);
+            results.add(new LedgerTransferResult(request.getTransferId(), outcome));
+            ledgerMetrics.recordOutcome(outcome);
+        }
+
+        // Dirty accounts and buckets are flushed first, then the entries, each grouped into JDBC batches.
+        ledgerMetrics.timeBalanceUpdate(accountRepository::flush);
+        ledgerMetrics.timeEntryInsert(() -> {
+            ledgerEntryRepository.saveAll(entries);
+            ledgerEntryRepository.flush();
+        });
+        accountBalanceCache.putAfterCommit(accounts.values());
+
+        log.info("Applied batch of {} transfers across {} accounts ({} entries written)",
+                requests.size(), accounts.size(), entries.size());
+        return results;
+    }
+
+    private LedgerTransferOutcome applyLeg(LedgerTransferRequest request, Map<Long, Account> accounts,
+                                           Map<Long, BalanceBuckets> buckets, Set<String> appliedTransferIds,
+                                           List<LedgerEntry> entries) {
+        if (appliedTransferIds.contains(request.getTransferId())) {
+            return LedgerTransferOutcome.DUPLICATE;
+        }
+
+        Account fromAccount = accounts.get(request.getFromAccountId());
+        Account toAccount = accounts.get(request.getToAccountId());
+        if (fromAccount == null || toAccount == null) {
+            return LedgerTransferOutcome.ACCOUNT_NOT_FOUND;
+        }
+
+        Money amount = Money.of(request.getAmount());
+        if (balanceOf(fromAccount, buckets).isLessThan(amount)) {
+            return LedgerTransferOutcome.INSUFFICIENT_FUNDS;
+        }
+
+        entries.addAll(moveFunds(request.getTransferId(), fromAccount, toAccount, amount, buckets));
+        appliedTransferIds.add(request.getTransferId());
+        return LedgerTransferOutcome.APPLIED;
+    }
+
+    private List<LedgerEntry> moveFunds(String transferId, Account fromAccount, Account toAccount, Money amount,
+                                        Map<Long, BalanceBuckets> buckets) {
+        if (fromAccount.isSharded()) {
+            buckets.get(fromAccount.getId()).debit(amount);
+        } else {
+            fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+        }
+        if (toAccount.isSharded()) {
+            buckets.get(toAccount.getId()).credit(amount);
+        } else {
+            toAccount.setBalance(toAccount.getBalance().plus(amount));
+        }
+        return transferEntries(transferId, fromAccount.getId(), toAccount.getId(), amount);
+    }
+
+    static List<LedgerEntry> transferEntries(String transferId, Long fromAccountId, Long toAccountId, Money amount) {
+        LedgerEntry debitEntry = LedgerEntry.builder()
+                .transferId(transferId)
+                .accountId(fromAccountId)
+                .amount(amount.negate())
+                .type(LedgerEntryType.DEBIT)
+                .build();
+
+        LedgerEntry creditEntry = LedgerEntry.builder()
+                .transferId(transferId)
+                .accountId(toAccountId)
+                .amount(amount)
+                .type(LedgerEntryType.CREDIT)
+                .build();
+
+        return List.of(debitEntry, creditEntry);
+    }
+
+    private static Money balanceOf(Account account, Map<Long, BalanceBuckets> buckets) {
+        return account.isSharded() ? buckets.get(account.getId()).total() : account.getBalance();
+    }
+
+    // Runs in the caller's read-only transaction; regular accounts read here are cached for later reads.
+    private List<AccountView> loadAccounts(Collection<Long> ids) {
+        List<AccountView> views = new ArrayList<>(ids.size());
+        for (Account account : accountRepository.findAllById(ids)) {
+            AccountView view = toAccountView(account, account.isSharded() ? sumOfBuckets(account.getId()) : account.getBalance());
+            accountBalanceCache.put(account, view);
+            views.add(view);
+        }
+        return views;
+    }
+
+    private Money sumOfBuckets(Long accountId) {
+        Money total = Money.zero();
+        for (AccountBucket bucket : accountBucketRepository.findByAccountId(accountId)) {
+            total = total.plus(bucket.getBalance());
+        }
+        return total;
+    }
+
+    // Spreads the initial balance evenly; the first bucket also takes the remainder.
+    private static List<AccountBucket> splitIntoBuckets(Long accountId, Money balance, int bucketCount) {
+        long share = balance.getMinorUnits() / bucketCount;
+        long remainder = balance.getMinorUnits() % bucketCount;
+        List<AccountBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(AccountBucket.builder()
+                    .accountId(accountId)
+                    .bucketIndex(i)
+                    .balance(Money.ofMinor(i == 0 ? share + remainder : share, balance.getScale()))
+                    .build());
         }
+        return buckets;
     }
 
-    private AccountView toAccountView(Account account) {
+    private AccountView toAccountView(Account account, Money balance) {
         return AccountView.builder()
                 .id(account.getId())
-                .balance(account.getBalance())
+                .balance(balance)
                 .version(account.getVersion())
                 .build();
     }
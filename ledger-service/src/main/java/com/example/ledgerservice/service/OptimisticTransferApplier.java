@@ -0,0 +1,211 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.domain.LedgerEntry;
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.metrics.LedgerMetrics;
+import com.example.ledgerservice.repository.AccountRepository;
+import com.example.ledgerservice.repository.LedgerEntryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies single transfers without {@code SELECT ... FOR UPDATE}, enabled with
+ * {@code ledger.concurrency.strategy=optimistic}. Both accounts are read without locks and then updated with
+ * conditional {@code UPDATE}s that only match while each account still has the {@link Account#getVersion() version}
+ * that was read, and, for the debit, while the funds suffice. If either update matches no row, a concurrent transfer
+ * got there first: the attempt rolls back and is retried after a random backoff of up to
+ * {@code ledger.concurrency.optimistic.backoff} times 2<sup>attempt - 1</sup>, for at most
+ * {@code ledger.concurrency.optimistic.max-attempts} attempts. Updates run in ascending account id order, like the row
+ * locks, so two attempts blocked on each other's updated rows cannot deadlock.
+ * <p>
+ * When the attempts run out, the accounts are remembered as contended for
+ * {@code ledger.concurrency.optimistic.contended-account-ttl}, and transfers touching them go straight to row locks,
+ * which queue fairly instead of retrying. Sharded accounts and transfers from an account to itself also use row locks.
+ */
+@Component
+@ConditionalOnExpression("'${ledger.concurrency.strategy:pessimistic}' == 'optimistic' and '${ledger.engine:jpa}' == 'jpa'")
+@Slf4j
+public class OptimisticTransferApplier {
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceCache accountBalanceCache;
+    private final LedgerMetrics ledgerMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final Cache<Long, Boolean> contendedAccounts;
+
+    public OptimisticTransferApplier(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                                     AccountBalanceCache accountBalanceCache, LedgerMetrics ledgerMetrics,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${ledger.concurrency.optimistic.max-attempts}") int maxAttempts,
+                                     @Value("${ledger.concurrency.optimistic.backoff}") Duration backoff,
+                                     @Value("${ledger.concurrency.optimistic.contended-account-ttl}") Duration contendedAccountTtl,
+                                     @Value("${ledger.concurrency.optimistic.contended-accounts-maximum-size}") long contendedAccountsMaximumSize) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one optimistic attempt is required");
+        }
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.accountBalanceCache = accountBalanceCache;
+        this.ledgerMetrics = ledgerMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.contendedAccounts = Caffeine.newBuilder()
+                .maximumSize(contendedAccountsMaximumSize)
+                .expireAfterWrite(contendedAccountTtl)
+                .build();
+    }
+
+    /**
+     * Applies the transfer, or returns {@code false} without having changed anything when it should be applied with
+     * row locks instead. Missing accounts and insufficient funds are thrown as by the locking path.
+     */
+    public boolean tryApply(LedgerTransferRequest request) {
+        Long fromId = request.getFromAccountId();
+        Long toId = request.getToAccountId();
+        if (fromId.equals(toId) || isContended(fromId) || isContended(toId)) {
+            return false;
+        }
+        for (int attempt = 1; ; attempt++) {
+            Attempt result;
+            try {
+                result = transactionTemplate.execute(status -> attempt(request, status));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent attempt of the same transfer inserted its entries first; the retry sees them.
+                result = Attempt.CONFLICT;
+            }
+            switch (result) {
+                case APPLIED -> {
+                    ledgerMetrics.recordOutcome(LedgerTransferOutcome.APPLIED);
+                    return true;
+                }
+                case DUPLICATE -> {
+                    ledgerMetrics.recordOutcome(LedgerTransferOutcome.DUPLICATE);
+                    return true;
+                }
+                case NOT_ELIGIBLE -> {
+                    return false;
+                }
+                case CONFLICT -> ledgerMetrics.recordOptimisticConflict();
+            }
+            if (attempt >= maxAttempts) {
+                log.info("Transfer {} conflicted {} times; accounts {} and {} now use row locks for a while",
+                        request.getTransferId(), attempt, fromId, toId);
+                contendedAccounts.put(fromId, Boolean.TRUE);
+                contendedAccounts.put(toId, Boolean.TRUE);
+                ledgerMetrics.recordOptimisticFallback();
+                return false;
+            }
+            backOff(attempt);
+        }
+    }
+
+    private Attempt attempt(LedgerTransferRequest request, TransactionStatus status) {
+        Map<Long, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(List.of(request.getFromAccountId(), request.getToAccountId()))
+                .forEach(account -> accounts.put(account.getId(), account));
+        Account fromAccount = accounts.get(request.getFromAccountId());
+        if (fromAccount == null) {
+            throw new AccountNotFoundException("From account not found: " + request.getFromAccountId());
+        }
+        Account toAccount = accounts.get(request.getToAccountId());
+        if (toAccount == null) {
+            throw new AccountNotFoundException("To account not found: " + request.getToAccountId());
+        }
+        if (fromAccount.isSharded() || toAccount.isSharded()) {
+            return Attempt.NOT_ELIGIBLE;
+        }
+        if (ledgerEntryRepository.existsByTransferId(request.getTransferId())) {
+            log.warn("Idempotent retry for transfer ID: {}. Transfer was already applied.", request.getTransferId());
+            return Attempt.DUPLICATE;
+        }
+
+        Money amount = Money.of(request.getAmount());
+        if (fromAccount.getBalance().isLessThan(amount)) {
+            throw new InsufficientFundsException("Insufficient funds in account: " + fromAccount.getId());
+        }
+
+        if (!ledgerMetrics.timeBalanceUpdate(() -> updateBalances(fromAccount, toAccount, amount))) {
+            status.setRollbackOnly();
+            return Attempt.CONFLICT;
+        }
+        List<LedgerEntry> entries = LedgerServiceImpl.transferEntries(request.getTransferId(), fromAccount.getId(),
+                toAccount.getId(), amount);
+        ledgerMetrics.timeEntryInsert(() -> {
+            ledgerEntryRepository.saveAll(entries);
+            ledgerEntryRepository.flush();
+        });
+        // The loaded entities are left untouched, or Hibernate would update them again on commit.
+        accountBalanceCache.putAfterCommit(List.of(
+                updated(fromAccount, fromAccount.getBalance().minus(amount)),
+                updated(toAccount, toAccount.getBalance().plus(amount))));
+
+        log.info("Applied transfer {} optimistically: {} from account {} to account {}",
+                request.getTransferId(), amount, fromAccount.getId(), toAccount.getId());
+        return Attempt.APPLIED;
+    }
+
+    private boolean updateBalances(Account fromAccount, Account toAccount, Money amount) {
+        if (fromAccount.getId() < toAccount.getId()) {
+            return debit(fromAccount, amount) && credit(toAccount, amount);
+        }
+        return credit(toAccount, amount) && debit(fromAccount, amount);
+    }
+
+    private boolean debit(Account account, Money amount) {
+        return accountRepository.debitIfUnchanged(account.getId(), account.getVersion(), amount.toBigDecimal()) == 1;
+    }
+
+    private boolean credit(Account account, Money amount) {
+        return accountRepository.creditIfUnchanged(account.getId(), account.getVersion(), amount.toBigDecimal()) == 1;
+    }
+
+    private boolean isContended(Long accountId) {
+        return contendedAccounts.getIfPresent(accountId) != null;
+    }
+
+    // Full jitter: spreads retries of transfers that conflicted with each other, so they do not collide again.
+    private void backOff(int attempt) {
+        long ceiling = backoffNanos << Math.min(attempt - 1, 16);
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static Account updated(Account account, Money balance) {
+        return Account.builder()
+                .id(account.getId())
+                .balance(balance)
+                .version(account.getVersion() + 1)
+                .bucketCount(account.getBucketCount())
+                .build();
+    }
+
+    private enum Attempt {
+        APPLIED,
+        DUPLICATE,
+        CONFLICT,
+        NOT_ELIGIBLE
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
+import com.example.ledgerservice.exception.LedgerBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes conflicting transfers in memory before they reach the database, enabled with
+ * {@code ledger.partitioning.enabled=true} on the JPA engine. Every account hashes to one of
+ * {@code ledger.partitioning.partitions} single-threaded executors, and a transfer runs on the partition of its
+ * accounts. Transfers on the same account therefore queue in that partition's in-memory queue instead of waiting on
+ * a row lock, and at most one connection per partition is in use for transfers at any time.
+ * <p>
+ * A transfer between accounts of two partitions is handed off deterministically: it enters the lower-numbered
+ * partition first and, from there, runs on the higher one, so that neither partition runs anything else meanwhile.
+ * Partitions are always entered in ascending order, so handoffs cannot deadlock, just like the row locks, which are
+ * still taken and keep batches and other instances correct. Each partition queues at most
+ * {@code ledger.partitioning.queue-capacity} transfers; beyond that a transfer fails at once with
+ * {@link LedgerBusyException} (503). Batches already lock all their accounts in one round trip and are not
+ * partitioned, nor are reads and account creation.
+ */
+@Service
+@Primary
+@ConditionalOnExpression("${ledger.partitioning.enabled:false} and '${ledger.engine:jpa}' == 'jpa'")
+@Slf4j
+public class PartitionedLedgerService implements LedgerService {
+
+    private final LedgerService delegate;
+    private final ThreadPoolExecutor[] partitions;
+
+    @Autowired
+    public PartitionedLedgerService(LedgerServiceImpl delegate, MeterRegistry meterRegistry,
+                                    @Value("${ledger.partitioning.partitions}") int partitionCount,
+                                    @Value("${ledger.partitioning.queue-capacity}") int queueCapacity) {
+        this((LedgerService) delegate, partitionCount, queueCapacity);
+        Gauge.builder("ledger.partitions.queued", this, PartitionedLedgerService::queuedTransfers)
+                .description("Transfers waiting in partition queues")
+                .register(meterRegistry);
+    }
+
+    PartitionedLedgerService(LedgerService delegate, int partitionCount, int queueCapacity) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        this.delegate = delegate;
+        this.partitions = new ThreadPoolExecutor[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            String threadName = "ledger-partition-" + i;
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), task -> new Thread(task, threadName));
+        }
+        log.info("Partitioned transfer execution enabled with {} partitions", partitionCount);
+    }
+
+    @Override
+    public AccountView createAccount(CreateAccountRequest request) {
+        return delegate.createAccount(request);
+    }
+
+    @Override
+    public AccountView getAccount(Long id) {
+        return delegate.getAccount(id);
+    }
+
+    @Override
+    public List<AccountView> getAccounts(Collection<Long> ids) {
+        return delegate.getAccounts(ids);
+    }
+
+    @Override
+    public void applyTransfer(LedgerTransferRequest request) {
+        int fromPartition = partitionOf(request.getFromAccountId());
+        int toPartition = partitionOf(request.getToAccountId());
+        int first = Math.min(fromPartition, toPartition);
+        int second = Math.max(fromPartition, toPartition);
+        // Partition threads log with the caller's MDC, so ledger log lines keep the request's correlation id.
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Runnable transfer = withMdc(context, () -> delegate.applyTransfer(request));
+        // The first partition's thread waits for the second to run the transfer, which keeps both partitions busy.
+        await(submit(first, first == second ? transfer : withMdc(context, () -> await(submit(second, transfer)))));
+    }
+
+    @Override
+    public List<LedgerTransferResult> applyTransfers(List<LedgerTransferRequest> requests) {
+        return delegate.applyTransfers(requests);
+    }
+
+    int partitionOf(Long accountId) {
+        return Math.floorMod(Long.hashCode(accountId), partitions.length);
+    }
+
+    int queuedTransfers() {
+        int queued = 0;
+        for (ThreadPoolExecutor partition : partitions) {
+            queued += partition.getQueue().size();
+        }
+        return queued;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private CompletableFuture<Void> submit(int partition, Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, partitions[partition]);
+        } catch (RejectedExecutionException e) {
+            throw new LedgerBusyException("Ledger partition " + partition + " is full. Please retry.");
+        }
+    }
+
+    private static Runnable withMdc(Map<String, String> context, Runnable task) {
+        return () -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.LedgerEntryType;
+import com.example.ledgerservice.dto.LedgerEntryView;
+import com.example.ledgerservice.dto.StatementPage;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.example.ledgerservice.repository.AccountRepository;
+import com.example.ledgerservice.repository.LedgerEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Account statements over {@code ledger_entries}, in entry id order. Pages use keyset (seek) pagination on the
+ * {@code (accountId, id)} index, so every page costs the same however deep it is. Exports stream every entry as one
+ * JSON object per line straight from a JDBC cursor of {@code ledger.statement.export-fetch-size} rows; no entities
+ * are loaded and memory use does not grow with the length of the statement.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
+public class StatementService {
+
+    private static final String EXPORT_SQL = "SELECT id, transfer_id, account_id, amount, type, created_at "
+            + "FROM ledger_entries WHERE account_id = ? AND id > ? ORDER BY id";
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter entryWriter;
+
+    public StatementService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                            DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Value("${ledger.statement.export-fetch-size}") int exportFetchSize) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(exportFetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entryWriter = objectMapper.writerFor(LedgerEntryView.class);
+    }
+
+    /**
+     * Up to {@code limit} entries of the account with ids above {@code after} (from the start when {@code null}).
+     */
+    @Transactional(readOnly = true)
+    public StatementPage getStatement(Long accountId, Long after, int limit) {
+        requireAccount(accountId);
+        // One extra row tells whether there is a next page without a count query.
+        List<LedgerEntryView> entries = ledgerEntryRepository.findStatementPage(accountId, after == null ? 0 : after,
+                Limit.of(limit + 1));
+        boolean hasMore = entries.size() > limit;
+        List<LedgerEntryView> page = hasMore ? entries.subList(0, limit) : entries;
+        return new StatementPage(List.copyOf(page), hasMore ? page.get(page.size() - 1).getId() : null);
+    }
+
+    public void requireAccount(Long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException("Account not found with ID: " + accountId);
+        }
+    }
+
+    /**
+     * Writes the account's entries with ids above {@code after} to {@code out} as NDJSON. Runs in a read-only
+     * transaction so that drivers such as PostgreSQL's actually use a server-side cursor for the fetch size.
+     */
+    public void exportStatement(Long accountId, Long after, OutputStream out) {
+        RowCallbackHandler writeLine = rs -> {
+            LedgerEntryView entry = new LedgerEntryView(
+                    rs.getLong("id"),
+                    rs.getString("transfer_id"),
+                    rs.getLong("account_id"),
+                    Money.of(rs.getBigDecimal("amount")),
+                    LedgerEntryType.valueOf(rs.getString("type")),
+                    rs.getTimestamp("created_at").toLocalDateTime());
+            try {
+                out.write(entryWriter.writeValueAsBytes(entry));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        readOnlyTransaction.executeWithoutResult(status ->
+                exportJdbcTemplate.query(EXPORT_SQL, writeLine, accountId, after == null ? 0 : after));
+    }
+}
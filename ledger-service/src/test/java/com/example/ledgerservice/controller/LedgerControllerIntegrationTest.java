@@ -1,5 +1,6 @@
 package com.example.ledgerservice.controller;
 
+import com.example.ledger.money.Money;
 import com.example.ledgerservice.domain.Account;
 import com.example.ledgerservice.repository.AccountRepository;
 import com.example.ledgerservice.repository.LedgerEntryRepository;
@@ -16,6 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
@@ -47,8 +49,8 @@ class LedgerControllerIntegrationTest {
     void setUp() {
         ledgerEntryRepository.deleteAll();
         accountRepository.deleteAll();
-        fromAccount = accountRepository.save(new Account(null, new BigDecimal("1000.00"), null));
-        toAccount = accountRepository.save(new Account(null, new BigDecimal("500.00"), null));
+        fromAccount = accountRepository.save(new Account(null, Money.of(new BigDecimal("1000.00")), null, 0));
+        toAccount = accountRepository.save(new Account(null, Money.of(new BigDecimal("500.00")), null, 0));
     }
 
     @AfterEach
@@ -139,4 +141,28 @@ class LedgerControllerIntegrationTest {
         mockMvc.perform(get("/accounts/" + toAccount.getId()))
                 .andExpect(jsonPath("$.balance", is(550.00)));
     }
+
+    @Test
+    void applyTransfers_shouldReportOutcomePerTransfer() throws Exception {
+        Map<String, Object> applied = new HashMap<>();
+        applied.put("transferId", "tx-batch-1");
+        applied.put("fromAccountId", fromAccount.getId());
+        applied.put("toAccountId", toAccount.getId());
+        applied.put("amount", 100.00);
+
+        Map<String, Object> insufficient = new HashMap<>(applied);
+        insufficient.put("transferId", "tx-batch-2");
+        insufficient.put("amount", 5000.00);
+
+        mockMvc.perform(post("/ledger/transfers:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("transfers", List.of(applied, insufficient, applied)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome", is("APPLIED")))
+                .andExpect(jsonPath("$[1].outcome", is("INSUFFICIENT_FUNDS")))
+                .andExpect(jsonPath("$[2].outcome", is("DUPLICATE")));
+
+        mockMvc.perform(get("/accounts/" + fromAccount.getId()))
+                .andExpect(jsonPath("$.balance", is(900.00)));
+    }
 }
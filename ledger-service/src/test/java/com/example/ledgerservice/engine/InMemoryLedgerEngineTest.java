@@ -0,0 +1,132 @@
+package com.example.ledgerservice.engine;
+
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryLedgerEngineTest {
+
+    // Small segments so that the tests also cover records rolling over into the next mapped segment.
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void applyTransfer_shouldMoveFundsAndIgnoreDuplicates() throws Exception {
+        try (InMemoryLedgerEngine engine = startEngine()) {
+            // Given
+            long from = engine.createAccount(10_000).join().getId();
+            long to = engine.createAccount(500).join().getId();
+
+            // When
+            engine.applyTransfer(new TransferCommand("tx-1", from, to, 2_500)).join();
+            engine.applyTransfer(new TransferCommand("tx-1", from, to, 2_500)).join();
+
+            // Then
+            assertEquals(7_500, engine.getAccount(from).join().getBalance());
+            assertEquals(3_000, engine.getAccount(to).join().getBalance());
+        }
+    }
+
+    @Test
+    void applyTransfer_shouldFail_whenFundsAreInsufficientOrAccountIsMissing() throws Exception {
+        try (InMemoryLedgerEngine engine = startEngine()) {
+            // Given
+            long from = engine.createAccount(100).join().getId();
+            long to = engine.createAccount(0).join().getId();
+
+            // When & Then
+            CompletionException insufficient = assertThrows(CompletionException.class,
+                    () -> engine.applyTransfer(new TransferCommand("tx-1", from, to, 101)).join());
+            assertInstanceOf(InsufficientFundsException.class, insufficient.getCause());
+
+            CompletionException missing = assertThrows(CompletionException.class,
+                    () -> engine.applyTransfer(new TransferCommand("tx-2", from, 99, 1)).join());
+            assertInstanceOf(AccountNotFoundException.class, missing.getCause());
+        }
+    }
+
+    @Test
+    void applyTransfer_shouldFailWithoutJournaling_whenCreditWouldOverflow() throws Exception {
+        try (InMemoryLedgerEngine engine = startEngine()) {
+            // Given
+            long from = engine.createAccount(100).join().getId();
+            long to = engine.createAccount(Long.MAX_VALUE - 10).join().getId();
+
+            // When & Then
+            CompletionException overflow = assertThrows(CompletionException.class,
+                    () -> engine.applyTransfer(new TransferCommand("tx-1", from, to, 11)).join());
+            assertInstanceOf(ArithmeticException.class, overflow.getCause());
+            assertEquals(100, engine.getAccount(from).join().getBalance());
+
+            // The engine keeps serving, and the rejected transfer id was not recorded as applied.
+            engine.applyTransfer(new TransferCommand("tx-1", from, to, 10)).join();
+            assertEquals(Long.MAX_VALUE, engine.getAccount(to).join().getBalance());
+        }
+    }
+
+    @Test
+    void applyTransfers_shouldReportOutcomePerTransfer() throws Exception {
+        try (InMemoryLedgerEngine engine = startEngine()) {
+            // Given
+            long from = engine.createAccount(1_000).join().getId();
+            long to = engine.createAccount(0).join().getId();
+
+            // When
+            List<LedgerTransferOutcome> outcomes = engine.applyTransfers(List.of(
+                    new TransferCommand("tx-1", from, to, 400),
+                    new TransferCommand("tx-2", from, to, 700),
+                    new TransferCommand("tx-3", from, 99, 1),
+                    new TransferCommand("tx-1", from, to, 400))).join();
+
+            // Then
+            assertEquals(List.of(LedgerTransferOutcome.APPLIED, LedgerTransferOutcome.INSUFFICIENT_FUNDS,
+                    LedgerTransferOutcome.ACCOUNT_NOT_FOUND, LedgerTransferOutcome.DUPLICATE), outcomes);
+            assertEquals(600, engine.getAccount(from).join().getBalance());
+        }
+    }
+
+    @Test
+    void start_shouldRebuildStateFromJournal() throws Exception {
+        // Given
+        long from;
+        long to;
+        try (InMemoryLedgerEngine engine = startEngine()) {
+            from = engine.createAccount(1_000_000).join().getId();
+            to = engine.createAccount(0).join().getId();
+            for (int i = 0; i < 50; i++) {
+                engine.applyTransfer(new TransferCommand("tx-" + i, from, to, 100)).join();
+            }
+        }
+
+        // When
+        try (InMemoryLedgerEngine restarted = startEngine()) {
+            // Then
+            assertEquals(995_000, restarted.getAccount(from).join().getBalance());
+            assertEquals(5_000, restarted.getAccount(to).join().getBalance());
+            assertEquals(50, restarted.getAccount(to).join().getVersion());
+
+            // Replayed transfer ids are still recognised as duplicates, and new accounts continue the id sequence.
+            restarted.applyTransfer(new TransferCommand("tx-0", from, to, 100)).join();
+            assertEquals(5_000, restarted.getAccount(to).join().getBalance());
+            assertEquals(to + 1, restarted.createAccount(0).join().getId());
+        }
+    }
+
+    private InMemoryLedgerEngine startEngine() throws Exception {
+        InMemoryLedgerEngine engine = new InMemoryLedgerEngine(new LedgerJournal(tempDir.resolve("ledger.journal"), SEGMENT_SIZE), 1024);
+        engine.start();
+        return engine;
+    }
+}
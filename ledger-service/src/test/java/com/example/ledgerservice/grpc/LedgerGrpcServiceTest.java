@@ -0,0 +1,120 @@
+package com.example.ledgerservice.grpc;
+
+import com.example.ledger.grpc.LedgerServiceGrpc;
+import com.example.ledger.grpc.TransferOutcome;
+import com.example.ledger.grpc.TransferPosting;
+import com.example.ledger.grpc.TransferResult;
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.service.LedgerService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerGrpcServiceTest {
+
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(new LedgerGrpcService(ledgerService, 2))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void applyTransfer_shouldReportRejectionsAsOutcomes_andMalformedPostingsAsErrors() {
+        doThrow(new InsufficientFundsException("Insufficient funds")).when(ledgerService).applyTransfer(any());
+        LedgerServiceGrpc.LedgerServiceBlockingStub stub = LedgerServiceGrpc.newBlockingStub(channel);
+
+        TransferResult result = stub.applyTransfer(posting("tx-1", 1000));
+        StatusRuntimeException invalid = assertThrows(StatusRuntimeException.class, () -> stub.applyTransfer(posting("tx-2", 0)));
+
+        assertEquals(TransferOutcome.INSUFFICIENT_FUNDS, result.getOutcome());
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getStatus().getCode());
+        verify(ledgerService, times(1)).applyTransfer(any());
+    }
+
+    @Test
+    void applyTransfers_shouldApplyStreamedPostingsInChunks() throws InterruptedException {
+        when(ledgerService.applyTransfers(anyList())).thenAnswer(invocation -> {
+            List<LedgerTransferRequest> requests = invocation.getArgument(0);
+            return requests.stream()
+                    .map(request -> new LedgerTransferResult(request.getTransferId(), LedgerTransferOutcome.APPLIED))
+                    .toList();
+        });
+        List<TransferResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        StreamObserver<TransferPosting> postings = LedgerServiceGrpc.newStub(channel).applyTransfers(new StreamObserver<>() {
+            @Override
+            public void onNext(TransferResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+        for (int i = 1; i <= 3; i++) {
+            postings.onNext(posting("tx-" + i, 100));
+        }
+        postings.onCompleted();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("tx-1", "tx-2", "tx-3"), results.stream().map(TransferResult::getTransferId).toList());
+        verify(ledgerService, times(2)).applyTransfers(anyList());
+    }
+
+    private static TransferPosting posting(String transferId, long minorUnits) {
+        return TransferPosting.newBuilder()
+                .setTransferId(transferId)
+                .setFromAccountId(1L)
+                .setToAccountId(2L)
+                .setAmountMinorUnits(minorUnits)
+                .setAmountScale(2)
+                .build();
+    }
+}
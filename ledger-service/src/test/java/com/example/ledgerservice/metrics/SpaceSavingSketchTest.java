@@ -0,0 +1,50 @@
+package com.example.ledgerservice.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void top_shouldKeepHotKeys_whenManyColdKeysPassThrough() {
+        // Given: two hot keys interleaved with 10,000 distinct cold keys, in a sketch of 10 counters
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        for (long i = 0; i < 10_000; i++) {
+            sketch.add(1_000_000 + i, 1);
+            if (i % 10 == 0) {
+                sketch.add(7, 50);
+                sketch.add(42, 20);
+            }
+        }
+
+        // When
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+
+        // Then: both are ranked first, and their estimates are exact to within the recorded error
+        assertEquals(7, top.get(0).key());
+        assertEquals(42, top.get(1).key());
+        assertTrue(top.get(0).weight() - top.get(0).error() <= 50_000 && 50_000 <= top.get(0).weight());
+        assertTrue(top.get(1).weight() - top.get(1).error() <= 20_000 && 20_000 <= top.get(1).weight());
+        assertEquals(50, top.get(0).max());
+    }
+
+    @Test
+    void decay_shouldHalveWeights_andForgetKeysLeftWithNone() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.add(1, 100);
+        sketch.add(2, 1);
+
+        // When
+        sketch.decay();
+
+        // Then
+        List<SpaceSavingSketch.Entry> top = sketch.top(10);
+        assertEquals(1, top.size());
+        assertEquals(50, top.get(0).weight());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.dto.AccountDrift;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.ReconciliationReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.jpa.show-sql=false")
+class BalanceReconcilerTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceReconciler balanceReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcile_shouldOnlyCheckNewEntries_andReportDrift() {
+        // Given: transfers between a regular and a sharded account
+        AccountView from = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("100.00"), null));
+        AccountView to = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("50.00"), 4));
+        for (int i = 0; i < 3; i++) {
+            transfer(from, to, "10.00");
+        }
+
+        // When / Then: every new entry is verified and nothing drifts
+        ReconciliationReport first = balanceReconciler.reconcile();
+        assertTrue(first.getEntriesVerified() >= 6);
+        assertTrue(drifts(first, from).isEmpty());
+        assertTrue(drifts(first, to).isEmpty());
+
+        // Without new entries there is nothing to do
+        ReconciliationReport idle = balanceReconciler.reconcile();
+        assertEquals(0, idle.getAccountsChecked());
+        assertEquals(0, idle.getEntriesVerified());
+
+        // A balance changed without a ledger entry shows up once the account is reconciled again
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 5 WHERE id = ?", from.getId());
+        transfer(from, to, "1.00");
+        ReconciliationReport afterTampering = balanceReconciler.reconcile();
+        assertEquals(2, afterTampering.getEntriesVerified());
+        List<AccountDrift> drifts = drifts(afterTampering, from);
+        assertEquals(1, drifts.size());
+        assertEquals(Money.of(new BigDecimal("5.00")), drifts.get(0).getDrift());
+        assertEquals(Money.of(new BigDecimal("69.00")), drifts.get(0).getLedgerBalance());
+        assertTrue(drifts(afterTampering, to).isEmpty());
+    }
+
+    private void transfer(AccountView from, AccountView to, String amount) {
+        ledgerService.applyTransfer(new LedgerTransferRequest(UUID.randomUUID().toString(), from.getId(), to.getId(),
+                new BigDecimal(amount)));
+    }
+
+    private static List<AccountDrift> drifts(ReconciliationReport report, AccountView account) {
+        return report.getDrifts().stream().filter(drift -> drift.getAccountId().equals(account.getId())).toList();
+    }
+}
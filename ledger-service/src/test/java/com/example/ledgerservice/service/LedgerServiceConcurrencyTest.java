@@ -0,0 +1,108 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.jpa.show-sql=false")
+class LedgerServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Test
+    void opposingTransfers_shouldNeitherDeadlockNorLoseMoney() throws Exception {
+        // Given
+        AccountView accountA = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("10000.00"), null));
+        AccountView accountB = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("10000.00"), null));
+        long entriesBefore = ledgerEntryRepository.count();
+
+        // When: half of the workers move money A->B while the other half move it B->A
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Long from = forward ? accountA.getId() : accountB.getId();
+                    Long to = forward ? accountB.getId() : accountA.getId();
+                    ledgerService.applyTransfer(new LedgerTransferRequest(
+                            UUID.randomUUID().toString(), from, to, BigDecimal.valueOf(1 + i % 7)));
+                }
+            }));
+        }
+        executor.shutdown();
+
+        // Then: every transfer completes (a deadlock or lock timeout would surface here) and money is conserved
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        Money total = ledgerService.getAccount(accountA.getId()).getBalance()
+                .plus(ledgerService.getAccount(accountB.getId()).getBalance());
+        assertEquals(Money.of(new BigDecimal("20000.00")), total);
+        assertEquals(entriesBefore + 2L * THREADS * TRANSFERS_PER_THREAD, ledgerEntryRepository.count());
+    }
+
+    @Test
+    void shardedAccount_shouldTakeConcurrentCreditsAndDebitsWithoutLosingMoney() throws Exception {
+        // Given: a hot account split into 4 buckets, fed from A and paying out to B
+        AccountView accountA = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("10000.00"), null));
+        AccountView hot = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("100.00"), 4));
+        AccountView accountB = ledgerService.createAccount(new CreateAccountRequest(BigDecimal.ZERO, null));
+
+        // When: half of the workers credit the hot account, the other half debit amounts larger than one bucket
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean credit = thread % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Long from = credit ? accountA.getId() : hot.getId();
+                    Long to = credit ? hot.getId() : accountB.getId();
+                    try {
+                        ledgerService.applyTransfer(new LedgerTransferRequest(
+                                UUID.randomUUID().toString(), from, to, BigDecimal.valueOf(credit ? 10 : 30)));
+                    } catch (InsufficientFundsException e) {
+                        // Payouts may outrun the credits; the balance must simply never go negative.
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+
+        // Then: money is conserved and the hot account's balance is the sum of its buckets
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        Money hotBalance = ledgerService.getAccount(hot.getId()).getBalance();
+        Money total = ledgerService.getAccount(accountA.getId()).getBalance()
+                .plus(hotBalance)
+                .plus(ledgerService.getAccount(accountB.getId()).getBalance());
+        assertEquals(Money.of(new BigDecimal("10100.00")), total);
+        assertTrue(hotBalance.signum() >= 0);
+    }
+}
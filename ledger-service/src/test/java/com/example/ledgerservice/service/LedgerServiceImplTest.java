@@ -1,24 +1,35 @@
 package com.example.ledgerservice.service;
 
+import com.example.ledger.money.Money;
 import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.LedgerTransferOutcome;
 import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.LedgerTransferResult;
 import com.example.ledgerservice.exception.AccountNotFoundException;
 import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.metrics.LedgerMetrics;
 import com.example.ledgerservice.repository.AccountRepository;
 import com.example.ledgerservice.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +41,18 @@ class LedgerServiceImplTest {
     @Mock
     private LedgerEntryRepository ledgerEntryRepository;
 
+    @Mock
+    private AccountLocker accountLocker;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private AccountBalanceCache accountBalanceCache = new AccountBalanceCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Spy
+    private LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private LedgerServiceImpl ledgerService;
 
@@ -37,29 +60,27 @@ class LedgerServiceImplTest {
     void applyTransfer_shouldSucceed_whenFundsAreSufficient() {
         // Given
         LedgerTransferRequest request = new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN);
-        Account fromAccount = new Account(1L, BigDecimal.valueOf(100), 0L);
-        Account toAccount = new Account(2L, BigDecimal.valueOf(50), 0L);
+        Account fromAccount = new Account(1L, Money.of(BigDecimal.valueOf(100)), 0L, 0);
+        Account toAccount = new Account(2L, Money.of(BigDecimal.valueOf(50)), 0L, 0);
 
-        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(toAccount));
+        when(accountLocker.lockAll(List.of(1L, 2L))).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         // When
         ledgerService.applyTransfer(request);
 
         // Then
         verify(accountRepository, times(1)).saveAll(any());
-        verify(ledgerEntryRepository, times(1)).saveAll(any());
+        verify(ledgerEntryRepository, times(1)).saveAllAndFlush(any());
     }
 
     @Test
     void applyTransfer_shouldThrowInsufficientFundsException_whenBalanceIsTooLow() {
         // Given
         LedgerTransferRequest request = new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.valueOf(200));
-        Account fromAccount = new Account(1L, BigDecimal.valueOf(100), 0L);
-        Account toAccount = new Account(2L, BigDecimal.valueOf(50), 0L);
+        Account fromAccount = new Account(1L, Money.of(BigDecimal.valueOf(100)), 0L, 0);
+        Account toAccount = new Account(2L, Money.of(BigDecimal.valueOf(50)), 0L, 0);
 
-        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(toAccount));
+        when(accountLocker.lockAll(List.of(1L, 2L))).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         // When & Then
         assertThrows(InsufficientFundsException.class, () -> ledgerService.applyTransfer(request));
@@ -69,25 +90,94 @@ class LedgerServiceImplTest {
     void applyTransfer_shouldThrowAccountNotFoundException_whenAccountDoesNotExist() {
         // Given
         LedgerTransferRequest request = new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN);
-        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(accountLocker.lockAll(List.of(1L, 2L))).thenReturn(Map.of());
 
         // When & Then
         assertThrows(AccountNotFoundException.class, () -> ledgerService.applyTransfer(request));
     }
 
     @Test
-    void applyTransfer_shouldBeIdempotent_whenDuplicateTransferId() {
+    void applyTransfer_shouldFail_whenEntryInsertViolatesTransferIdIndex() {
         // Given
         LedgerTransferRequest request = new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN);
-        Account fromAccount = new Account(1L, BigDecimal.valueOf(100), 0L);
-        Account toAccount = new Account(2L, BigDecimal.valueOf(50), 0L);
+        Account fromAccount = new Account(1L, Money.of(BigDecimal.valueOf(100)), 0L, 0);
+        Account toAccount = new Account(2L, Money.of(BigDecimal.valueOf(50)), 0L, 0);
 
-        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(toAccount));
+        when(accountLocker.lockAll(List.of(1L, 2L))).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
         doThrow(new DataIntegrityViolationException("... Unique index or primary key violation: ... IDX_TRANSFER_ID ..."))
-                .when(ledgerEntryRepository).saveAll(any());
+                .when(ledgerEntryRepository).saveAllAndFlush(any());
+
+        // When & Then: duplicates are caught by the check under the row locks, so a violation here is a real failure
+        assertThrows(DataIntegrityViolationException.class, () -> ledgerService.applyTransfer(request));
+        verify(ledgerMetrics, never()).recordOutcome(LedgerTransferOutcome.DUPLICATE);
+    }
 
-        // When & Then: The service method should catch the exception and return normally.
-        assertDoesNotThrow(() -> ledgerService.applyTransfer(request));
+    @Test
+    void applyTransfer_shouldSkipTransfer_whenEntriesAlreadyExist() {
+        // Given
+        LedgerTransferRequest request = new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN);
+        Account fromAccount = new Account(1L, Money.of(BigDecimal.valueOf(100)), 0L, 0);
+        Account toAccount = new Account(2L, Money.of(BigDecimal.valueOf(50)), 0L, 0);
+
+        when(accountLocker.lockAll(List.of(1L, 2L))).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
+        when(ledgerEntryRepository.existsByTransferId("tx-1")).thenReturn(true);
+
+        // When
+        ledgerService.applyTransfer(request);
+
+        // Then
+        assertEquals(Money.of(BigDecimal.valueOf(100)), fromAccount.getBalance());
+        verify(ledgerEntryRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void applyTransfers_shouldReportOutcomePerTransfer() {
+        // Given
+        List<LedgerTransferRequest> requests = List.of(
+                new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN),
+                new LedgerTransferRequest("tx-2", 1L, 2L, BigDecimal.valueOf(500)),
+                new LedgerTransferRequest("tx-3", 1L, 3L, BigDecimal.TEN),
+                new LedgerTransferRequest("tx-4", 2L, 1L, BigDecimal.ONE),
+                new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN));
+        Account fromAccount = new Account(1L, Money.of(BigDecimal.valueOf(100)), 0L, 0);
+        Account toAccount = new Account(2L, Money.of(BigDecimal.valueOf(50)), 0L, 0);
+
+        when(accountLocker.lockAll(any())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
+        when(ledgerEntryRepository.findExistingTransferIds(any())).thenReturn(List.of("tx-4"));
+
+        // When
+        List<LedgerTransferResult> results = ledgerService.applyTransfers(requests);
+
+        // Then
+        assertEquals(List.of(
+                        LedgerTransferOutcome.APPLIED,
+                        LedgerTransferOutcome.INSUFFICIENT_FUNDS,
+                        LedgerTransferOutcome.ACCOUNT_NOT_FOUND,
+                        LedgerTransferOutcome.DUPLICATE,
+                        LedgerTransferOutcome.DUPLICATE),
+                results.stream().map(LedgerTransferResult::getOutcome).toList());
+        assertEquals(Money.of(BigDecimal.valueOf(90)), fromAccount.getBalance());
+        assertEquals(Money.of(BigDecimal.valueOf(60)), toAccount.getBalance());
+        verify(ledgerEntryRepository, times(1)).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
+    }
+
+    @Test
+    void getAccounts_shouldServeCachedBalances_andLoadOnlyTheMissesInOneQuery() {
+        // Given
+        Account cached = new Account(1L, Money.of(BigDecimal.valueOf(100)), 3L, 0);
+        Account stored = new Account(2L, Money.of(BigDecimal.valueOf(50)), 7L, 0);
+        accountBalanceCache.putAfterCommit(List.of(cached));
+        when(accountRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(stored));
+
+        // When
+        List<AccountView> views = ledgerService.getAccounts(List.of(1L, 2L, 3L, 1L));
+
+        // Then
+        assertEquals(List.of(1L, 2L), views.stream().map(AccountView::getId).toList());
+        assertEquals(Money.of(BigDecimal.valueOf(50)), views.get(1).getBalance());
+        // The balance read from the database is cached, but never over a newer version.
+        accountBalanceCache.put(stored, AccountView.builder().id(2L).balance(Money.zero()).version(6L).build());
+        assertEquals(7L, ledgerService.getAccount(2L).getVersion());
+        verify(accountRepository, times(1)).findAllById(any());
     }
 }
@@ -0,0 +1,113 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.ledgerservice.domain.Account;
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import com.example.ledgerservice.repository.AccountRepository;
+import com.example.ledgerservice.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "ledger.concurrency.strategy=optimistic",
+        "ledger.concurrency.optimistic.max-attempts=2",
+        "ledger.concurrency.optimistic.backoff=1ms"
+})
+class OptimisticTransferApplierTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void uncontendedTransfer_shouldSkipRowLocks_andStayIdempotent() {
+        // Given
+        AccountView from = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("100.00"), null));
+        AccountView to = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("50.00"), null));
+        long lockWaitsBefore = lockWaits();
+        long entriesBefore = ledgerEntryRepository.count();
+        LedgerTransferRequest request = new LedgerTransferRequest(UUID.randomUUID().toString(), from.getId(), to.getId(),
+                new BigDecimal("30.00"));
+
+        // When: the same transfer arrives twice, followed by one the balance cannot cover
+        ledgerService.applyTransfer(request);
+        ledgerService.applyTransfer(request);
+        assertThrows(InsufficientFundsException.class, () -> ledgerService.applyTransfer(new LedgerTransferRequest(
+                UUID.randomUUID().toString(), from.getId(), to.getId(), new BigDecimal("70.01"))));
+
+        // Then: applied once, without waiting for a row lock, and the versions moved with the balances
+        assertEquals(lockWaitsBefore, lockWaits());
+        assertEquals(Money.of(new BigDecimal("70.00")), ledgerService.getAccount(from.getId()).getBalance());
+        assertEquals(Money.of(new BigDecimal("80.00")), ledgerService.getAccount(to.getId()).getBalance());
+        assertEquals(from.getVersion() + 1, accountRepository.findById(from.getId()).map(Account::getVersion).orElseThrow());
+        assertEquals(entriesBefore + 2, ledgerEntryRepository.count());
+    }
+
+    @Test
+    void opposingTransfers_shouldConserveMoney_whetherAppliedOptimisticallyOrWithLocks() throws Exception {
+        // Given
+        AccountView accountA = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("10000.00"), null));
+        AccountView accountB = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("10000.00"), null));
+        long entriesBefore = ledgerEntryRepository.count();
+
+        // When: two hot accounts make optimistic attempts conflict, and some transfers fall back to row locks
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Long from = forward ? accountA.getId() : accountB.getId();
+                    Long to = forward ? accountB.getId() : accountA.getId();
+                    ledgerService.applyTransfer(new LedgerTransferRequest(
+                            UUID.randomUUID().toString(), from, to, BigDecimal.valueOf(1 + i % 7)));
+                }
+            }));
+        }
+        executor.shutdown();
+
+        // Then: every transfer is applied exactly once and bumps both versions exactly once
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        Money total = ledgerService.getAccount(accountA.getId()).getBalance()
+                .plus(ledgerService.getAccount(accountB.getId()).getBalance());
+        assertEquals(Money.of(new BigDecimal("20000.00")), total);
+        assertEquals(entriesBefore + 2L * THREADS * TRANSFERS_PER_THREAD, ledgerEntryRepository.count());
+        assertEquals(accountA.getVersion() + THREADS * TRANSFERS_PER_THREAD,
+                accountRepository.findById(accountA.getId()).map(Account::getVersion).orElseThrow());
+    }
+
+    private long lockWaits() {
+        return meterRegistry.get("ledger.stage").tag("stage", "lock_wait").timer().count();
+    }
+}
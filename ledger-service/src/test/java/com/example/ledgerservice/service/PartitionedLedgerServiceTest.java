@@ -0,0 +1,109 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.exception.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class PartitionedLedgerServiceTest {
+
+    private final LedgerService delegate = mock(LedgerService.class);
+    private final PartitionedLedgerService partitionedService = new PartitionedLedgerService(delegate, 3, 1_000);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        partitionedService.shutdown();
+    }
+
+    @Test
+    void applyTransfer_shouldNeverRunTwoTransfersOfAnAccountAtOnce() throws Exception {
+        // Given: a delegate that notices when a transfer starts on an account another transfer is still using
+        Map<Long, AtomicInteger> activeByAccount = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicInteger applied = new AtomicInteger();
+        doAnswer(invocation -> {
+            LedgerTransferRequest request = invocation.getArgument(0);
+            List<AtomicInteger> active = List.of(
+                    activeByAccount.computeIfAbsent(request.getFromAccountId(), id -> new AtomicInteger()),
+                    activeByAccount.computeIfAbsent(request.getToAccountId(), id -> new AtomicInteger()));
+            active.forEach(counter -> overlapped.compareAndSet(false, counter.incrementAndGet() > 1));
+            Thread.sleep(1);
+            active.forEach(AtomicInteger::decrementAndGet);
+            applied.incrementAndGet();
+            return null;
+        }).when(delegate).applyTransfer(any());
+        // Accounts 1 and 4 share a partition, 2 and 3 are in others, so most transfers cross partitions.
+        assertEquals(partitionedService.partitionOf(1L), partitionedService.partitionOf(4L));
+        assertNotEquals(partitionedService.partitionOf(2L), partitionedService.partitionOf(3L));
+
+        // When: 200 transfers between the four accounts, in both directions, from 16 threads
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            long from = i % 4 + 1;
+            long to = (i + 1 + i / 4 % 3) % 4 + 1;
+            calls.add(CompletableFuture.runAsync(() -> partitionedService.applyTransfer(
+                    new LedgerTransferRequest("tx-" + from + "-" + to, from, to, BigDecimal.ONE)), callers));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get();
+        callers.shutdown();
+
+        // Then
+        assertEquals(200, applied.get());
+        assertFalse(overlapped.get());
+    }
+
+    @Test
+    void applyTransfer_shouldRunWithTheCallersCorrelationId() {
+        // Given: accounts in different partitions, so the transfer is handed from one partition thread to another
+        assertNotEquals(partitionedService.partitionOf(2L), partitionedService.partitionOf(3L));
+        AtomicReference<String> seen = new AtomicReference<>();
+        doAnswer(invocation -> {
+            seen.set(MDC.get("correlationId"));
+            return null;
+        }).when(delegate).applyTransfer(any());
+
+        // When
+        MDC.put("correlationId", "corr-1");
+        try {
+            partitionedService.applyTransfer(new LedgerTransferRequest("tx-1", 2L, 3L, BigDecimal.TEN));
+        } finally {
+            MDC.remove("correlationId");
+        }
+
+        // Then
+        assertEquals("corr-1", seen.get());
+    }
+
+    @Test
+    void applyTransfer_shouldRethrowTheDelegatesException() {
+        // Given
+        doThrow(new InsufficientFundsException("Insufficient funds in account: 1")).when(delegate).applyTransfer(any());
+
+        // When / Then
+        assertThrows(InsufficientFundsException.class, () -> partitionedService.applyTransfer(
+                new LedgerTransferRequest("tx-1", 1L, 2L, BigDecimal.TEN)));
+    }
+}
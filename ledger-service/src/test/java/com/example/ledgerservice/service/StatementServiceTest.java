@@ -0,0 +1,72 @@
+package com.example.ledgerservice.service;
+
+import com.example.ledgerservice.dto.AccountView;
+import com.example.ledgerservice.dto.CreateAccountRequest;
+import com.example.ledgerservice.dto.LedgerEntryView;
+import com.example.ledgerservice.dto.LedgerTransferRequest;
+import com.example.ledgerservice.dto.StatementPage;
+import com.example.ledgerservice.exception.AccountNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.jpa.show-sql=false")
+class StatementServiceTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void statement_shouldPageByCursor_andExportTheSameEntriesAsNdjson() throws Exception {
+        // Given: five transfers out of one account, interleaved with entries of another
+        AccountView account = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("100.00"), null));
+        AccountView other = ledgerService.createAccount(new CreateAccountRequest(new BigDecimal("100.00"), null));
+        for (int i = 1; i <= 5; i++) {
+            ledgerService.applyTransfer(new LedgerTransferRequest(UUID.randomUUID().toString(), account.getId(), other.getId(),
+                    BigDecimal.valueOf(i)));
+        }
+
+        // When
+        List<LedgerEntryView> paged = new ArrayList<>();
+        List<Long> cursors = new ArrayList<>();
+        Long cursor = null;
+        do {
+            StatementPage page = statementService.getStatement(account.getId(), cursor, 2);
+            paged.addAll(page.getEntries());
+            cursor = page.getNextCursor();
+            cursors.add(cursor);
+        } while (cursor != null);
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        statementService.exportStatement(account.getId(), null, export);
+
+        // Then
+        assertEquals(3, cursors.size());
+        assertNull(cursors.get(2));
+        assertEquals(List.of("-1.00", "-2.00", "-3.00", "-4.00", "-5.00"),
+                paged.stream().map(entry -> entry.getAmount().toString()).toList());
+        List<LedgerEntryView> exported = new ArrayList<>();
+        for (String line : export.toString(StandardCharsets.UTF_8).split("\n")) {
+            exported.add(objectMapper.readValue(line, LedgerEntryView.class));
+        }
+        assertEquals(paged, exported);
+        assertThrows(AccountNotFoundException.class, () -> statementService.getStatement(Long.MAX_VALUE, null, 10));
+    }
+}
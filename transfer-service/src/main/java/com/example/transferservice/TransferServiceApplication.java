@@ -1,11 +1,17 @@
 package com.example.transferservice;
 
+import com.example.ledger.money.MoneyConverter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableJpaAuditing
+// MoneyConverter lives in the shared ledger-api module, outside the default entity scan.
+@EntityScan(basePackageClasses = {TransferServiceApplication.class, MoneyConverter.class})
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableScheduling
 public class TransferServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,125 @@
+package com.example.transferservice.client;
+
+import com.example.transferservice.exception.LedgerOverloadedException;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive (AIMD) limit on concurrent in-flight ledger calls. A call that finds the limit reached is rejected at once
+ * with {@link LedgerOverloadedException} instead of queueing. Each call that completes within
+ * {@code ledger.client.limiter.latency-threshold} while at least half the limit is in use raises the limit by one; a
+ * slower call, or one that timed out, multiplies it by {@code backoff-ratio}. The limit stays between
+ * {@code min-limit} and {@code max-limit}, so when the ledger slows down fewer calls queue on it and the excess is
+ * shed, and it grows back once latency recovers.
+ * <p>
+ * The limit, the in-flight count and rejections are exported as {@code ledger.client.limiter.limit},
+ * {@code ledger.client.limiter.in.flight} and {@code ledger.client.limiter.rejected}.
+ */
+@Component
+public class LedgerConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+
+    public LedgerConcurrencyLimiter(MeterRegistry meterRegistry,
+                                    @Value("${ledger.client.limiter.initial-limit}") int initialLimit,
+                                    @Value("${ledger.client.limiter.min-limit}") int minLimit,
+                                    @Value("${ledger.client.limiter.max-limit}") int maxLimit,
+                                    @Value("${ledger.client.limiter.backoff-ratio}") double backoffRatio,
+                                    @Value("${ledger.client.limiter.latency-threshold}") Duration latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid ledger concurrency limiter settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("ledger.client.limiter.limit", this, LedgerConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent ledger calls")
+                .register(meterRegistry);
+        Gauge.builder("ledger.client.limiter.in.flight", inFlight, AtomicInteger::get)
+                .description("Ledger calls currently in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ledger.client.limiter.rejected")
+                .description("Ledger calls shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call if a slot is free under the current limit, or fails with {@link LedgerOverloadedException}
+     * without subscribing to it. The slot is held until the call terminates or is cancelled.
+     */
+    public <T> Mono<T> limit(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new LedgerOverloadedException(
+                        "Ledger service is overloaded (" + getLimit() + " calls in flight). Please retry."));
+            }
+            long startedAt = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(result -> release(System.nanoTime() - startedAt > latencyThresholdNanos))
+                    .doOnError(e -> release(isTimeout(e) || System.nanoTime() - startedAt > latencyThresholdNanos))
+                    .doOnCancel(inFlight::decrementAndGet);
+        });
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                // Only grow while the limit is actually being used, so a quiet period does not inflate it.
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    // Timeouts are the ledger being slow; other errors (rejections, bad requests) say nothing about its load.
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof io.netty.handler.timeout.TimeoutException
+                    || Status.fromThrowable(cause).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
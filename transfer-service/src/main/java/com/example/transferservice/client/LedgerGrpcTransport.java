@@ -0,0 +1,129 @@
+package com.example.transferservice.client;
+
+import com.example.ledger.grpc.LedgerServiceGrpc;
+import com.example.ledger.grpc.TransferOutcome;
+import com.example.ledger.grpc.TransferPosting;
+import com.example.ledger.grpc.TransferResult;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.filter.CorrelationIds;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * gRPC transport of the {@link LedgerServiceClient}, enabled with {@code ledger.client.transport=grpc}. Postings are
+ * Protobuf messages with amounts as minor units, so neither side runs Jackson on the hot path. Each call carries the
+ * correlation id as {@code x-correlation-id} metadata and a deadline of {@code ledger.client.response-timeout}.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.client.transport", havingValue = "grpc")
+public class LedgerGrpcTransport {
+
+    private static final Metadata.Key<String> CORRELATION_ID_KEY = Metadata.Key.of("x-correlation-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final LedgerServiceGrpc.LedgerServiceStub stub;
+    private final Duration deadline;
+
+    public LedgerGrpcTransport(ManagedChannel ledgerChannel, @Value("${ledger.client.response-timeout}") Duration deadline) {
+        this.stub = LedgerServiceGrpc.newStub(ledgerChannel);
+        this.deadline = deadline;
+    }
+
+    public Mono<Void> applyTransfer(LedgerTransferRequest request) {
+        return withCallStub(callStub -> Mono.<TransferResult>create(sink -> callStub.applyTransfer(toPosting(request),
+                        new StreamObserver<>() {
+                            @Override
+                            public void onNext(TransferResult result) {
+                                sink.success(result);
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                sink.error(t);
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                                sink.success();
+                            }
+                        })))
+                .flatMap(result -> {
+                    LedgerTransferOutcome outcome = toOutcome(result.getOutcome());
+                    return outcome.isSuccessful()
+                            ? Mono.<Void>empty()
+                            : Mono.error(new LedgerServiceException("Ledger service rejected transfer " + result.getTransferId() + ": " + outcome));
+                });
+    }
+
+    public Mono<List<LedgerTransferResult>> applyTransfers(List<LedgerTransferRequest> requests) {
+        return withCallStub(callStub -> Mono.create(sink -> {
+            List<LedgerTransferResult> results = new ArrayList<>(requests.size());
+            StreamObserver<TransferPosting> postings = callStub.applyTransfers(new StreamObserver<>() {
+                @Override
+                public void onNext(TransferResult result) {
+                    results.add(new LedgerTransferResult(result.getTransferId(), toOutcome(result.getOutcome())));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    sink.error(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    sink.success(results);
+                }
+            });
+            requests.forEach(request -> postings.onNext(toPosting(request)));
+            postings.onCompleted();
+        }));
+    }
+
+    private <T> Mono<T> withCallStub(Function<LedgerServiceGrpc.LedgerServiceStub, Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            String correlationId = CorrelationIds.current(context);
+            LedgerServiceGrpc.LedgerServiceStub callStub = stub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+            if (correlationId != null) {
+                Metadata headers = new Metadata();
+                headers.put(CORRELATION_ID_KEY, correlationId);
+                callStub = callStub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+            }
+            return call.apply(callStub);
+        });
+    }
+
+    private static TransferPosting toPosting(LedgerTransferRequest request) {
+        return TransferPosting.newBuilder()
+                .setTransferId(request.getTransferId())
+                .setFromAccountId(request.getFromAccountId())
+                .setToAccountId(request.getToAccountId())
+                .setAmountMinorUnits(request.getAmount().getMinorUnits())
+                .setAmountScale(request.getAmount().getScale())
+                .build();
+    }
+
+    private static LedgerTransferOutcome toOutcome(TransferOutcome outcome) {
+        return switch (outcome) {
+            case APPLIED -> LedgerTransferOutcome.APPLIED;
+            case DUPLICATE -> LedgerTransferOutcome.DUPLICATE;
+            case INSUFFICIENT_FUNDS -> LedgerTransferOutcome.INSUFFICIENT_FUNDS;
+            case ACCOUNT_NOT_FOUND -> LedgerTransferOutcome.ACCOUNT_NOT_FOUND;
+            case TRANSFER_OUTCOME_UNSPECIFIED, UNRECOGNIZED ->
+                    throw new LedgerServiceException("Ledger service returned an unknown transfer outcome");
+        };
+    }
+}
@@ -1,24 +1,88 @@
 package com.example.transferservice.client;
 
+import com.example.transferservice.dto.LedgerBatchTransferRequest;
 import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.exception.LedgerOverloadedException;
 import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.metrics.TransferMetrics;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Client for the ledger service. Calls are guarded by the {@code ledgerService} circuit breaker and by the
+ * {@link LedgerConcurrencyLimiter}, which adapts the number of concurrent in-flight calls to the ledger's latency,
+ * independently of how many request or batch threads (platform or virtual) are waiting on them. Calls over the limit
+ * fail at once with {@link LedgerOverloadedException}, which the circuit breaker does not count as a failure.
+ * <p>
+ * Calls go over JSON/HTTP by default, or over gRPC through the {@link LedgerGrpcTransport} with
+ * {@code ledger.client.transport=grpc}; the circuit breaker and limiter apply to both. On HTTP, with
+ * {@code ledger.client.batching.enabled=true}, single transfers are coalesced by the {@link LedgerTransferBatcher}
+ * into batch requests; each caller still gets its own result and goes through the circuit breaker, while the batcher
+ * applies the limiter and the {@code ledger_call} timer to each batch request it sends.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class LedgerServiceClient {
 
     private final WebClient ledgerWebClient;
+    private final LedgerTransferBatcher ledgerTransferBatcher;
+    private final LedgerGrpcTransport ledgerGrpcTransport;
+    private final LedgerConcurrencyLimiter ledgerConcurrencyLimiter;
+    private final TransferMetrics transferMetrics;
+
+    public LedgerServiceClient(WebClient ledgerWebClient) {
+        this(ledgerWebClient, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * Without a {@link LedgerConcurrencyLimiter} or {@link TransferMetrics}, for use outside Spring.
+     */
+    public LedgerServiceClient(WebClient ledgerWebClient, Optional<LedgerTransferBatcher> ledgerTransferBatcher,
+                               Optional<LedgerGrpcTransport> ledgerGrpcTransport) {
+        this(ledgerWebClient, ledgerTransferBatcher, ledgerGrpcTransport, null, null);
+    }
+
+    @Autowired
+    public LedgerServiceClient(WebClient ledgerWebClient, Optional<LedgerTransferBatcher> ledgerTransferBatcher,
+                               Optional<LedgerGrpcTransport> ledgerGrpcTransport, LedgerConcurrencyLimiter ledgerConcurrencyLimiter,
+                               TransferMetrics transferMetrics) {
+        this.ledgerWebClient = ledgerWebClient;
+        this.ledgerTransferBatcher = ledgerTransferBatcher.orElse(null);
+        this.ledgerGrpcTransport = ledgerGrpcTransport.orElse(null);
+        this.ledgerConcurrencyLimiter = ledgerConcurrencyLimiter;
+        this.transferMetrics = transferMetrics;
+    }
 
     @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackPostTransfer")
     public Mono<Void> postTransfer(LedgerTransferRequest transferRequest) {
+        if (ledgerGrpcTransport == null && ledgerTransferBatcher != null) {
+            return ledgerTransferBatcher.submit(transferRequest);
+        }
+        return limited(() -> send(transferRequest));
+    }
+
+    @CircuitBreaker(name = "ledgerService", fallbackMethod = "fallbackPostTransfers")
+    public Mono<List<LedgerTransferResult>> postTransfers(List<LedgerTransferRequest> transferRequests) {
+        return limited(() -> ledgerGrpcTransport != null
+                ? ledgerGrpcTransport.applyTransfers(transferRequests)
+                : postBatch(ledgerWebClient, transferRequests));
+    }
+
+    private Mono<Void> send(LedgerTransferRequest transferRequest) {
+        if (ledgerGrpcTransport != null) {
+            return ledgerGrpcTransport.applyTransfer(transferRequest);
+        }
         return ledgerWebClient.post()
                 .uri("/ledger/transfer")
                 .bodyValue(transferRequest)
@@ -31,8 +95,43 @@ public class LedgerServiceClient {
                 .bodyToMono(Void.class);
     }
 
+    // Only calls admitted by the limiter are timed, so shed calls do not drag the ledger_call latency down.
+    private <T> Mono<T> limited(Supplier<Mono<T>> call) {
+        Supplier<Mono<T>> timed = transferMetrics != null ? () -> transferMetrics.timeLedgerCall(call) : call;
+        return ledgerConcurrencyLimiter != null ? ledgerConcurrencyLimiter.limit(timed) : timed.get();
+    }
+
+    static Mono<List<LedgerTransferResult>> postBatch(WebClient ledgerWebClient, List<LedgerTransferRequest> transferRequests) {
+        return ledgerWebClient.post()
+                .uri("/ledger/transfers:batch")
+                .bodyValue(new LedgerBatchTransferRequest(transferRequests))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response ->
+                        response.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new LedgerServiceException(
+                                        "Ledger service failed with status " + response.statusCode() + ": " + errorBody)))
+                )
+                .bodyToMono(new ParameterizedTypeReference<List<LedgerTransferResult>>() {});
+    }
+
+    // Shed calls keep their own exception, so callers can tell that nothing was sent and answer with a retryable 503.
+    public Mono<Void> fallbackPostTransfer(LedgerTransferRequest transferRequest, LedgerOverloadedException e) {
+        log.warn("Ledger call for transfer {} shed: {}", transferRequest.getTransferId(), e.getMessage());
+        return Mono.error(e);
+    }
+
     public Mono<Void> fallbackPostTransfer(LedgerTransferRequest transferRequest, Throwable t) {
         log.error("Ledger service is unavailable. Falling back for transfer {}", transferRequest.getTransferId(), t);
         return Mono.error(new LedgerServiceException("Ledger service is unavailable. Please try again later."));
     }
+
+    public Mono<List<LedgerTransferResult>> fallbackPostTransfers(List<LedgerTransferRequest> transferRequests, LedgerOverloadedException e) {
+        log.warn("Ledger call for batch of {} transfers shed: {}", transferRequests.size(), e.getMessage());
+        return Mono.error(e);
+    }
+
+    public Mono<List<LedgerTransferResult>> fallbackPostTransfers(List<LedgerTransferRequest> transferRequests, Throwable t) {
+        log.error("Ledger service is unavailable. Falling back for batch of {} transfers", transferRequests.size(), t);
+        return Mono.error(new LedgerServiceException("Ledger service is unavailable. Please try again later."));
+    }
 }
@@ -0,0 +1,168 @@
+package com.example.transferservice.client;
+
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.filter.CorrelationIds;
+import com.example.transferservice.metrics.TransferMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces single ledger postings into batch requests, enabled with {@code ledger.client.batching.enabled=true}.
+ * A batch is sent once it holds {@code max-size} postings or its first posting has waited {@code linger}, whichever
+ * comes first; at most {@code max-in-flight} batches are outstanding. Each posting's outcome is routed back to the
+ * {@code Mono} of the caller that submitted it.
+ * <p>
+ * The {@link LedgerConcurrencyLimiter} and the {@code ledger_call} stage timer wrap each batch request, so the limiter
+ * counts requests in flight rather than queued postings, and the timer excludes the linger. Each posting carries its
+ * caller's correlation id. A batch whose postings share one id is sent with it; a mixed batch is sent with an id of its
+ * own, and the ids of its postings are logged under that id when it is sent.
+ * <p>
+ * Batch fill and the time postings spend waiting for their batch are recorded as the
+ * {@code ledger.client.batch.size} and {@code ledger.client.batch.wait} histograms.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.client.batching.enabled", havingValue = "true")
+@Slf4j
+public class LedgerTransferBatcher {
+
+    private final WebClient ledgerWebClient;
+    private final LedgerConcurrencyLimiter ledgerConcurrencyLimiter;
+    private final TransferMetrics transferMetrics;
+    private final Sinks.Many<PendingTransfer> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Disposable pipeline;
+
+    /**
+     * Without a {@link LedgerConcurrencyLimiter} or {@link TransferMetrics}, for use outside Spring.
+     */
+    public LedgerTransferBatcher(WebClient ledgerWebClient, MeterRegistry meterRegistry, int maxSize, Duration linger,
+                                 int maxInFlight) {
+        this(ledgerWebClient, null, null, meterRegistry, maxSize, linger, maxInFlight);
+    }
+
+    @Autowired
+    public LedgerTransferBatcher(WebClient ledgerWebClient, LedgerConcurrencyLimiter ledgerConcurrencyLimiter,
+                                 TransferMetrics transferMetrics, MeterRegistry meterRegistry,
+                                 @Value("${ledger.client.batching.max-size}") int maxSize,
+                                 @Value("${ledger.client.batching.linger}") Duration linger,
+                                 @Value("${ledger.client.batching.max-in-flight}") int maxInFlight) {
+        this.ledgerWebClient = ledgerWebClient;
+        this.ledgerConcurrencyLimiter = ledgerConcurrencyLimiter;
+        this.transferMetrics = transferMetrics;
+        this.batchSize = DistributionSummary.builder("ledger.client.batch.size")
+                .description("Postings per coalesced ledger batch request")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) maxSize)
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("ledger.client.batch.wait")
+                .description("Time a posting waits for its batch to be sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // Fair backpressure: a full or lingering buffer waits for a free in-flight slot instead of failing.
+        this.pipeline = pending.asFlux()
+                .bufferTimeout(maxSize, linger, true)
+                .flatMap(this::send, maxInFlight)
+                .subscribe();
+    }
+
+    public Mono<Void> submit(LedgerTransferRequest request) {
+        return Mono.deferContextual(context -> {
+            String correlationId = CorrelationIds.current(context);
+            Sinks.One<Void> result = Sinks.one();
+            // Callers emit concurrently; the busy loop serializes them on the sink.
+            pending.emitNext(new PendingTransfer(request, correlationId, result, System.nanoTime()),
+                    Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+            return result.asMono();
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        pipeline.dispose();
+    }
+
+    private Mono<Void> send(List<PendingTransfer> batch) {
+        long now = System.nanoTime();
+        batchSize.record(batch.size());
+        for (PendingTransfer transfer : batch) {
+            batchWait.record(now - transfer.submittedAt(), TimeUnit.NANOSECONDS);
+        }
+        String correlationId = correlationIdOf(batch);
+        List<LedgerTransferRequest> requests = batch.stream().map(PendingTransfer::request).toList();
+        Supplier<Mono<List<LedgerTransferResult>>> call = () -> LedgerServiceClient.postBatch(ledgerWebClient, requests);
+        Supplier<Mono<List<LedgerTransferResult>>> timed = transferMetrics != null
+                ? () -> transferMetrics.timeLedgerCall(call)
+                : call;
+        return (ledgerConcurrencyLimiter != null ? ledgerConcurrencyLimiter.limit(timed) : timed.get())
+                .contextWrite(context -> correlationId != null ? context.put(CorrelationIds.KEY, correlationId) : context)
+                .doOnNext(results -> complete(batch, results))
+                .doOnError(e -> {
+                    log.error("Ledger service batch call failed for {} coalesced transfers", batch.size(), e);
+                    batch.forEach(transfer -> transfer.result().tryEmitError(e));
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    // The callers' shared correlation id, or a new one for the batch under which their ids are logged.
+    private static String correlationIdOf(List<PendingTransfer> batch) {
+        Set<String> correlationIds = batch.stream()
+                .map(PendingTransfer::correlationId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (correlationIds.size() <= 1 && batch.stream().allMatch(transfer -> transfer.correlationId() != null)) {
+            return correlationIds.stream().findFirst().orElse(null);
+        }
+        String batchCorrelationId = "batch-" + UUID.randomUUID();
+        if (log.isInfoEnabled()) {
+            log.info("Sending ledger batch {} of {} transfers: {}", batchCorrelationId, batch.size(), batch.stream()
+                    .map(transfer -> transfer.request().getTransferId() + "=" + transfer.correlationId())
+                    .collect(Collectors.joining(", ")));
+        }
+        return batchCorrelationId;
+    }
+
+    private static void complete(List<PendingTransfer> batch, List<LedgerTransferResult> results) {
+        Map<String, LedgerTransferOutcome> outcomes = results.stream()
+                .collect(Collectors.toMap(LedgerTransferResult::getTransferId, LedgerTransferResult::getOutcome, (a, b) -> a));
+        for (PendingTransfer transfer : batch) {
+            LedgerTransferOutcome outcome = outcomes.get(transfer.request().getTransferId());
+            if (outcome != null && outcome.isSuccessful()) {
+                transfer.result().tryEmitEmpty();
+            } else {
+                transfer.result().tryEmitError(new LedgerServiceException(
+                        "Ledger service rejected transfer " + transfer.request().getTransferId() + ": " + outcome));
+            }
+        }
+    }
+
+    private record PendingTransfer(LedgerTransferRequest request, String correlationId, Sinks.One<Void> result,
+                                   long submittedAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.transferservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+@Configuration
+public class AuditingConfig {
+
+    /**
+     * Audit timestamps at microsecond precision, the precision of the database columns and of stored idempotent
+     * responses, so a first response and its replays carry the same {@code createdAt}.
+     */
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider() {
+        return () -> Optional.of(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transferservice.config;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "ledger.client.transport", havingValue = "grpc")
+public class GrpcClientConfig {
+
+    @Value("${ledger.client.grpc.target}")
+    private String target;
+
+    @Value("${ledger.client.grpc.keep-alive-time}")
+    private Duration keepAliveTime;
+
+    /**
+     * One HTTP/2 channel to the ledger's gRPC server; calls are multiplexed over it, so it needs no pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ManagedChannel ledgerChannel() {
+        return Grpc.newChannelBuilder(target, InsecureChannelCredentials.create())
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.transferservice.config;
+
+import com.example.transferservice.service.IdempotencyService.CachedResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Configuration
+public class IdempotencyCacheConfig {
+
+    @Value("${transfer.idempotency.cache.maximum-size}")
+    private long maximumSize;
+
+    @Value("${transfer.idempotency.cache.ttl}")
+    private Duration ttl;
+
+    /**
+     * Completed idempotent responses by key, already deserialized. An entry lives for {@code ttl} at most, and never
+     * beyond the {@code expiryAt} of its key. Hits, misses and evictions are exported as the {@code cache.*} metrics
+     * with {@code cache=idempotency-keys}.
+     */
+    @Bean
+    public Cache<UUID, CachedResponse> idempotencyResponseCache(MeterRegistry meterRegistry) {
+        Cache<UUID, CachedResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<UUID, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(UUID key, CachedResponse value, long currentTime) {
+                        return timeToLive(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID key, CachedResponse value, long currentTime, long currentDuration) {
+                        return timeToLive(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency-keys");
+    }
+
+    private long timeToLive(CachedResponse value) {
+        Duration untilExpiry = Duration.between(LocalDateTime.now(), value.expiryAt());
+        return Math.max(0, Math.min(ttl.toNanos(), untilExpiry.toNanos()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.transferservice.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Serves the reactive stack from Reactor Netty. Tomcat is on the classpath for the blocking stack and would otherwise
+ * be picked, running WebFlux through the servlet adapter on Tomcat's thread pool.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.transferservice.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.Map;
+
+@Configuration
+public class TaskExecutionConfig {
+
+    @Value("${transfer.batch.concurrency}")
+    private int batchConcurrency;
+
+    /**
+     * Thread-per-task executor for batch chunks. Spring Boot's builder makes these virtual threads when
+     * {@code spring.threads.virtual.enabled=true} on Java 21+, and platform threads otherwise; in both cases at most
+     * {@code transfer.batch.concurrency} chunks run at once.
+     */
+    @Bean
+    public AsyncTaskExecutor transferBatchExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder
+                .threadNamePrefix("transfer-batch-")
+                .concurrencyLimit(batchConcurrency)
+                .taskDecorator(TaskExecutionConfig::propagateMdc)
+                .build();
+    }
+
+    // Keeps the correlation id of the submitting request on the worker thread, so that it reaches the ledger.
+    private static Runnable propagateMdc(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+}
@@ -1,37 +1,106 @@
 package com.example.transferservice.config;
 
-import org.slf4j.MDC;
+import com.example.transferservice.filter.CorrelationIds;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
     private static final String CORRELATION_ID_HEADER_NAME = "X-Correlation-ID";
-    private static final String CORRELATION_ID_LOG_VAR_NAME = "correlationId";
 
     @Value("${ledger.service.base-url}")
     private String ledgerServiceBaseUrl;
 
+    @Value("${ledger.client.http2-enabled}")
+    private boolean http2Enabled;
+
+    @Value("${ledger.client.max-connections}")
+    private int maxConnections;
+
+    @Value("${ledger.client.max-concurrent-streams}")
+    private long maxConcurrentStreams;
+
+    @Value("${ledger.client.pending-acquire-max-count}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${ledger.client.pending-acquire-timeout}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${ledger.client.max-idle-time}")
+    private Duration maxIdleTime;
+
+    @Value("${ledger.client.max-life-time}")
+    private Duration maxLifeTime;
+
+    @Value("${ledger.client.eviction-interval}")
+    private Duration evictionInterval;
+
+    @Value("${ledger.client.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${ledger.client.response-timeout}")
+    private Duration responseTimeout;
+
+    /**
+     * Connection pool for calls to the ledger. Pending acquires are bounded in number and time, so a burst fails fast
+     * instead of queueing without limit; idle and old connections are evicted in the background. With h2c each
+     * connection multiplexes up to {@code max-concurrent-streams} requests. Pool gauges (active, idle, pending) are
+     * exported as the {@code reactor_netty_connection_provider_*} metrics with {@code name="ledger"}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider ledgerConnectionProvider() {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("ledger")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true);
+        if (http2Enabled) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(maxConnections)
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .build());
+        }
+        return builder.build();
+    }
+
     @Bean
-    public WebClient ledgerWebClient() {
+    public WebClient ledgerWebClient(ConnectionProvider ledgerConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(ledgerConnectionProvider)
+                .protocol(http2Enabled ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout);
         return WebClient.builder()
                 .baseUrl(ledgerServiceBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter(correlationIdPropagationFilter())
                 .build();
     }
 
     private ExchangeFilterFunction correlationIdPropagationFilter() {
-        return (clientRequest, next) -> {
-            String correlationId = MDC.get(CORRELATION_ID_LOG_VAR_NAME);
+        return (clientRequest, next) -> Mono.deferContextual(context -> {
             ClientRequest newRequest = ClientRequest.from(clientRequest)
-                    .header(CORRELATION_ID_HEADER_NAME, correlationId)
+                    .header(CORRELATION_ID_HEADER_NAME, CorrelationIds.current(context))
                     .build();
             return next.exchange(newRequest);
-        };
+        });
     }
 }
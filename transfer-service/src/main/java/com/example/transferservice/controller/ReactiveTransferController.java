@@ -0,0 +1,57 @@
+package com.example.transferservice.controller;
+
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.service.ReactiveTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * WebFlux variant of {@link TransferController} with the same API contract, active with the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/transfers")
+@Profile("reactive")
+@RequiredArgsConstructor
+@Tag(name = "Transfers", description = "Transfer Management API")
+public class ReactiveTransferController {
+
+    private final ReactiveTransferService transferService;
+
+    @Value("${transfer.batch.max-size}")
+    private int maxBatchSize;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Initiate a new transfer")
+    public Mono<TransferView> createTransfer(
+            @RequestHeader("Idempotency-Key") UUID idempotencyKey,
+            @Valid @RequestBody CreateTransferRequest request) {
+        return transferService.createTransfer(idempotencyKey, request);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get transfer details by ID")
+    public Mono<TransferView> getTransfer(@PathVariable UUID id) {
+        return transferService.getTransfer(id);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Initiate a batch of transfers")
+    public Mono<List<TransferView>> createBatchTransfers(@Valid @RequestBody List<CreateTransferRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size cannot exceed " + maxBatchSize + " transfers.");
+        }
+        return transferService.createBatchTransfers(requests);
+    }
+}
@@ -7,21 +7,26 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/transfers")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Tag(name = "Transfers", description = "Transfer Management API")
 public class TransferController {
 
     private final TransferService transferService;
 
+    @Value("${transfer.batch.max-size}")
+    private int maxBatchSize;
+
     @PostMapping
     @ResponseStatus(HttpStatus.ACCEPTED)
     @Operation(summary = "Initiate a new transfer")
@@ -40,17 +45,9 @@ public class TransferController {
     @PostMapping("/batch")
     @Operation(summary = "Initiate a batch of transfers")
     public List<TransferView> createBatchTransfers(@Valid @RequestBody List<CreateTransferRequest> requests) {
-        if (requests.size() > 20) {
-            throw new IllegalArgumentException("Batch size cannot exceed 20 transfers.");
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size cannot exceed " + maxBatchSize + " transfers.");
         }
-        return transferService.createBatchTransfers(requests).stream()
-                .map(future -> {
-                    try {
-                        return future.get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        throw new RuntimeException("Error processing batch transfer", e);
-                    }
-                })
-                .toList();
+        return transferService.createBatchTransfers(requests);
     }
 }
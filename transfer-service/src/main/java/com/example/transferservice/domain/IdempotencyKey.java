@@ -5,22 +5,25 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "idempotency_keys")
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_transfer_id", columnList = "transferId"),
+        @Index(name = "idx_idempotency_keys_expiry_at", columnList = "expiryAt")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class IdempotencyKey {
+public class IdempotencyKey implements Persistable<UUID> {
 
     @Id
     private UUID idempotencyKey;
 
-    @Column(nullable = false)
+    // Legacy JSON response, written before responseData existed; converted to responseData when replayed.
     private String responseBody;
 
     @Column(nullable = false)
@@ -28,4 +31,39 @@ public class IdempotencyKey {
 
     @Column(nullable = false)
     private LocalDateTime expiryAt;
+
+    private UUID transferId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyKeyStatus status;
+
+    // SHA-256 of the request payload; a replay with a different payload is rejected.
+    @Column(length = 64)
+    private String requestFingerprint;
+
+    // Response encoded with TransferViewCodec; null while the key is IN_PROGRESS.
+    @Column(length = 64)
+    private byte[] responseData;
+
+    // Set on reservation, so saving the key INSERTs it and a concurrent reservation fails on the primary key instead
+    // of being merged over it.
+    @Transient
+    private boolean newRecord;
+
+    @Override
+    public UUID getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        newRecord = false;
+    }
 }
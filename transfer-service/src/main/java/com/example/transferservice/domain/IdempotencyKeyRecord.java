@@ -0,0 +1,55 @@
+package com.example.transferservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of the {@code idempotency_keys} table used by the reactive stack; the schema is owned by
+ * {@link IdempotencyKey}.
+ */
+@Table("idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKeyRecord implements Persistable<UUID> {
+
+    @Id
+    private UUID idempotencyKey;
+
+    private String responseBody;
+
+    private int responseStatusCode;
+
+    private LocalDateTime expiryAt;
+
+    private UUID transferId;
+
+    private IdempotencyKeyStatus status;
+
+    private String requestFingerprint;
+
+    private byte[] responseData;
+
+    @Transient
+    private boolean newRecord;
+
+    @Override
+    public UUID getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+}
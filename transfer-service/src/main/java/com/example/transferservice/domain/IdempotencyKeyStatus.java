@@ -0,0 +1,6 @@
+package com.example.transferservice.domain;
+
+public enum IdempotencyKeyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -1,5 +1,6 @@
 package com.example.transferservice.domain;
 
+import com.example.ledger.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,12 +9,11 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = @Index(name = "idx_transfers_status_created_at", columnList = "status, createdAt"))
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -32,7 +32,7 @@ public class Transfer {
     private Long toAccountId;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
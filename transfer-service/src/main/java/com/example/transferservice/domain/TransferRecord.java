@@ -0,0 +1,47 @@
+package com.example.transferservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of the {@code transfers} table used by the reactive stack; the schema is owned by {@link Transfer}.
+ */
+@Table("transfers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferRecord implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    private Long fromAccountId;
+
+    private Long toAccountId;
+
+    private BigDecimal amount;
+
+    private TransferStatus status;
+
+    private LocalDateTime createdAt;
+
+    // Ids are assigned by the application, so inserts have to be told apart from updates explicitly.
+    @Transient
+    private boolean newRecord;
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+}
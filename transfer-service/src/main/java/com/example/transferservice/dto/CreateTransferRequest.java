@@ -1,6 +1,7 @@
 package com.example.transferservice.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,5 +22,6 @@ public class CreateTransferRequest {
 
     @NotNull(message = "Amount cannot be null")
     @DecimalMin(value = "0.0", inclusive = false, message = "Transfer amount must be positive")
+    @Digits(integer = 16, fraction = 2, message = "Transfer amount must have at most 16 integer digits and 2 decimal places")
     private BigDecimal amount;
 }
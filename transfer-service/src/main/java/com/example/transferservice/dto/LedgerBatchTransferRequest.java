@@ -0,0 +1,14 @@
+package com.example.transferservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerBatchTransferRequest {
+    private List<LedgerTransferRequest> transfers;
+}
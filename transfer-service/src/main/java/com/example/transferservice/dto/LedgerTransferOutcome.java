@@ -0,0 +1,12 @@
+package com.example.transferservice.dto;
+
+public enum LedgerTransferOutcome {
+    APPLIED,
+    DUPLICATE,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND;
+
+    public boolean isSuccessful() {
+        return this == APPLIED || this == DUPLICATE;
+    }
+}
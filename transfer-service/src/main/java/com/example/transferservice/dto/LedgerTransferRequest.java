@@ -1,12 +1,11 @@
 package com.example.transferservice.dto;
 
+import com.example.ledger.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,5 +14,5 @@ public class LedgerTransferRequest {
     private String transferId;
     private Long fromAccountId;
     private Long toAccountId;
-    private BigDecimal amount;
+    private Money amount;
 }
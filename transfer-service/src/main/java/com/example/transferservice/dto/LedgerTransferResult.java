@@ -0,0 +1,15 @@
+package com.example.transferservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerTransferResult {
+    private String transferId;
+    private LedgerTransferOutcome outcome;
+}
@@ -1,12 +1,12 @@
 package com.example.transferservice.dto;
 
+import com.example.ledger.money.Money;
 import com.example.transferservice.domain.TransferStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -18,7 +18,7 @@ public class TransferView {
     private UUID id;
     private Long fromAccountId;
     private Long toAccountId;
-    private BigDecimal amount;
+    private Money amount;
     private TransferStatus status;
     private LocalDateTime createdAt;
 }
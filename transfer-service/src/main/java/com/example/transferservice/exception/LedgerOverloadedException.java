@@ -0,0 +1,15 @@
+package com.example.transferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A ledger call shed by the concurrency limiter before it was sent. Nothing was applied, so the request can be
+ * retried as is.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LedgerOverloadedException extends LedgerServiceException {
+    public LedgerOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.transferservice.filter;
+
+import org.slf4j.MDC;
+import reactor.util.context.ContextView;
+
+/**
+ * Looks up the correlation id set by {@link RequestCorrelationFilter} or {@link ReactiveCorrelationFilter}, for
+ * propagation to outgoing ledger calls.
+ */
+public final class CorrelationIds {
+
+    /**
+     * Key of the correlation id in both the MDC and the Reactor context.
+     */
+    public static final String KEY = "correlationId";
+
+    private CorrelationIds() {
+    }
+
+    /**
+     * Returns the caller's correlation id, or {@code null} if it has none. The reactive stack carries it in the
+     * Reactor context; blocking callers have it in the MDC.
+     */
+    public static String current(ContextView context) {
+        return context.getOrDefault(KEY, MDC.get(KEY));
+    }
+}
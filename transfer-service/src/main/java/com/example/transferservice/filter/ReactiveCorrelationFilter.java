@@ -0,0 +1,28 @@
+package com.example.transferservice.filter;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * WebFlux counterpart of {@link RequestCorrelationFilter}. Requests are not bound to a thread here, so the
+ * correlation id travels in the Reactor context instead of the MDC.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCorrelationFilter implements WebFilter {
+
+    private static final String CORRELATION_ID_HEADER_NAME = "X-Correlation-ID";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(CORRELATION_ID_HEADER_NAME);
+        String correlationId = header != null ? header : UUID.randomUUID().toString();
+        return chain.filter(exchange).contextWrite(context -> context.put(CorrelationIds.KEY, correlationId));
+    }
+}
@@ -15,7 +15,6 @@ import java.util.UUID;
 public class RequestCorrelationFilter extends OncePerRequestFilter {
 
     private static final String CORRELATION_ID_HEADER_NAME = "X-Correlation-ID";
-    private static final String CORRELATION_ID_LOG_VAR_NAME = "correlationId";
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -25,10 +24,10 @@ public class RequestCorrelationFilter extends OncePerRequestFilter {
             if (correlationId == null) {
                 correlationId = UUID.randomUUID().toString();
             }
-            MDC.put(CORRELATION_ID_LOG_VAR_NAME, correlationId);
+            MDC.put(CorrelationIds.KEY, correlationId);
             filterChain.doFilter(request, response);
         } finally {
-            MDC.remove(CORRELATION_ID_LOG_VAR_NAME);
+            MDC.remove(CorrelationIds.KEY);
         }
     }
 }
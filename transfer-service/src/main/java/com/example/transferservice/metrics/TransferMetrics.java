@@ -0,0 +1,91 @@
+package com.example.transferservice.metrics;
+
+import com.example.transferservice.domain.TransferStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters of the transfer hot path. Every stage is a {@code transfer.stage} timer tagged with its
+ * {@code stage}: {@code idempotency_lookup} (replay check), {@code transfer_insert} (reserving the key with a
+ * PROCESSING transfer), {@code ledger_call} (one call to the ledger, whatever the transport) and
+ * {@code outcome_update} (recording the final status and response). Meters are kept in fields once created, error
+ * counters on first use of their exception type, so the hot path never looks them up in the registry. Percentile
+ * histograms come from configuration.
+ * <p>
+ * Finished transfers are counted as {@code transfer.outcomes} by {@link TransferStatus}, and failures as
+ * {@code transfer.errors} by exception type.
+ */
+@Component
+public class TransferMetrics {
+
+    public static final String STAGE_TIMER = "transfer.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer idempotencyLookup;
+    private final Timer transferInsert;
+    private final Timer ledgerCall;
+    private final Timer outcomeUpdate;
+    private final Map<TransferStatus, Counter> outcomes = new EnumMap<>(TransferStatus.class);
+    private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.idempotencyLookup = stageTimer(meterRegistry, "idempotency_lookup");
+        this.transferInsert = stageTimer(meterRegistry, "transfer_insert");
+        this.ledgerCall = stageTimer(meterRegistry, "ledger_call");
+        this.outcomeUpdate = stageTimer(meterRegistry, "outcome_update");
+        for (TransferStatus status : TransferStatus.values()) {
+            outcomes.put(status, Counter.builder("transfer.outcomes")
+                    .description("Transfers by final status")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T timeIdempotencyLookup(Supplier<T> lookup) {
+        return idempotencyLookup.record(lookup);
+    }
+
+    public <T> T timeTransferInsert(Supplier<T> insert) {
+        return transferInsert.record(insert);
+    }
+
+    public <T> T timeOutcomeUpdate(Supplier<T> update) {
+        return outcomeUpdate.record(update);
+    }
+
+    /**
+     * Times the call from subscription until it completes, fails or is cancelled.
+     */
+    public <T> Mono<T> timeLedgerCall(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return call.get().doFinally(signal -> ledgerCall.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    public void recordOutcome(TransferStatus status) {
+        outcomes.get(status).increment();
+    }
+
+    public void recordError(Throwable error) {
+        errors.computeIfAbsent(error.getClass(),
+                type -> meterRegistry.counter("transfer.errors", "exception", type.getSimpleName())).increment();
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of processing a transfer")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
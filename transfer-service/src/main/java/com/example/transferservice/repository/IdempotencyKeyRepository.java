@@ -1,11 +1,28 @@
 package com.example.transferservice.repository;
 
 import com.example.transferservice.domain.IdempotencyKey;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    List<IdempotencyKey> findByTransferIdIn(Collection<UUID> transferIds);
+
+    @Query("SELECT k.idempotencyKey FROM IdempotencyKey k WHERE k.expiryAt < :now ORDER BY k.expiryAt")
+    List<UUID> findExpiredKeys(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Re-checks the expiry: a key may have been taken over by a new request since it was selected.
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.idempotencyKey IN :keys AND k.expiryAt < :now")
+    int deleteExpired(@Param("keys") Collection<UUID> keys, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,15 @@
+package com.example.transferservice.repository;
+
+import com.example.transferservice.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByNextAttemptAtLessThanEqual(LocalDateTime dueAt, Pageable pageable);
+}
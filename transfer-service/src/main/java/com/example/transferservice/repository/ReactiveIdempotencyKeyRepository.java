@@ -0,0 +1,11 @@
+package com.example.transferservice.repository;
+
+import com.example.transferservice.domain.IdempotencyKeyRecord;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ReactiveIdempotencyKeyRepository extends R2dbcRepository<IdempotencyKeyRecord, UUID> {
+}
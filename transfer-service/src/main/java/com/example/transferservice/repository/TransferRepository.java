@@ -1,11 +1,17 @@
 package com.example.transferservice.repository;
 
 import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, UUID> {
+
+    List<Transfer> findByStatusAndCreatedAtBefore(TransferStatus status, LocalDateTime createdBefore, Pageable pageable);
 }
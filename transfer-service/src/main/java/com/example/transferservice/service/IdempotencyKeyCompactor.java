@@ -0,0 +1,112 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired idempotency keys in the background, so the table and its indexes stay proportional to the keys
+ * still live rather than to every key ever seen.
+ * <p>
+ * Keys are deleted in chunks of {@code chunk-size}, each in its own short transaction, walking the
+ * {@code expiryAt} index. Runs are throttled to {@code max-rows-per-second} and stop after {@code max-rows-per-run},
+ * so compaction does not compete with live traffic for locks and connections. An interrupted run stops at the next
+ * chunk rather than carrying on unthrottled. Exports the {@code idempotency.keys.purged} counter and the
+ * {@code idempotency.keys.rows} gauge; counting the table is a full scan, so the gauge is only refreshed on the first
+ * run and after runs that purged keys.
+ */
+@Component
+@Slf4j
+public class IdempotencyKeyCompactor {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionOperations transactionOperations;
+    private final Counter purgedCounter;
+    private final AtomicLong tableRows = new AtomicLong();
+    private volatile boolean tableRowsCounted;
+
+    @Value("${transfer.idempotency.compaction.chunk-size}")
+    private int chunkSize;
+
+    @Value("${transfer.idempotency.compaction.max-rows-per-run}")
+    private int maxRowsPerRun;
+
+    @Value("${transfer.idempotency.compaction.max-rows-per-second}")
+    private int maxRowsPerSecond;
+
+    public IdempotencyKeyCompactor(IdempotencyKeyRepository idempotencyKeyRepository,
+                                   TransactionOperations transactionOperations, MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionOperations = transactionOperations;
+        this.purgedCounter = Counter.builder("idempotency.keys.purged")
+                .description("Expired idempotency keys deleted by the compactor")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.keys.rows", tableRows, AtomicLong::get)
+                .description("Rows in the idempotency_keys table, as of the last compaction run that purged keys")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.idempotency.compaction.interval}",
+            initialDelayString = "${transfer.idempotency.compaction.interval}")
+    public void scheduledCompact() {
+        compact();
+    }
+
+    /**
+     * Runs one compaction pass and returns the number of keys deleted.
+     */
+    public int compact() {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        int purged = 0;
+        while (purged < maxRowsPerRun && !Thread.currentThread().isInterrupted()) {
+            int limit = Math.min(chunkSize, maxRowsPerRun - purged);
+            Integer deleted = transactionOperations.execute(status -> deleteChunk(now, limit));
+            purged += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < limit) {
+                break;
+            }
+            throttle(startNanos, purged);
+        }
+        if (purged > 0 || !tableRowsCounted) {
+            tableRows.set(idempotencyKeyRepository.count());
+            tableRowsCounted = true;
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys, {} remain", purged, tableRows.get());
+        }
+        return purged;
+    }
+
+    private int deleteChunk(LocalDateTime now, int limit) {
+        List<UUID> expiredKeys = idempotencyKeyRepository.findExpiredKeys(now, PageRequest.of(0, limit));
+        return expiredKeys.isEmpty() ? 0 : idempotencyKeyRepository.deleteExpired(expiredKeys, now);
+    }
+
+    // Sleeps until the rows purged so far fit within max-rows-per-second.
+    private void throttle(long startNanos, int purged) {
+        long earliestNanos = startNanos + purged * 1_000_000_000L / maxRowsPerSecond;
+        long waitMillis = (earliestNanos - System.nanoTime()) / 1_000_000;
+        if (waitMillis > 0) {
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                // Keeps the flag set, so compact() stops instead of deleting the rest of the run unthrottled.
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
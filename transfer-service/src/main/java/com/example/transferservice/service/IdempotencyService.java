@@ -0,0 +1,347 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.domain.IdempotencyKey;
+import com.example.transferservice.domain.IdempotencyKeyStatus;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.exception.IdempotencyKeyConflictException;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.repository.TransferRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves {@code Idempotency-Key}s for new transfers and replays the response for keys seen before. A key is
+ * reserved {@code IN_PROGRESS} by inserting it before anything else in the transaction that creates its transfer, so
+ * the primary key decides which of several concurrent requests does the work; it is completed with the response once
+ * the outcome is known. Each key records a fingerprint of its request, and reusing a key with a different payload is
+ * rejected with {@link IdempotencyKeyConflictException}. All methods except {@link #findCachedResponse},
+ * {@link #runOnce} and {@link #awaitResponse} join the caller's transaction.
+ * <p>
+ * Completed responses are written through to an in-process cache once their transaction commits, so retries of a
+ * recently completed request are answered without touching the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private static final long KEY_TTL_HOURS = 24;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransferRepository transferRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, CachedResponse> idempotencyResponseCache;
+    private final TransactionOperations transactionOperations;
+    private final Map<UUID, InFlight> inFlightResponses = new ConcurrentHashMap<>();
+
+    @Value("${transfer.idempotency.in-flight.poll-interval}")
+    private Duration inFlightPollInterval;
+
+    @Value("${transfer.idempotency.in-flight.max-wait}")
+    private Duration inFlightMaxWait;
+
+    /**
+     * SHA-256 of the fields that define a transfer request. Amounts are normalized, so {@code 10} and {@code 10.00}
+     * are the same request.
+     */
+    public static String fingerprint(CreateTransferRequest request) {
+        String canonical = request.getFromAccountId() + "|" + request.getToAccountId() + "|"
+                + (request.getAmount() == null ? null : request.getAmount().stripTrailingZeros().toPlainString());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the completed response for the key if it is cached. Needs no transaction, so callers can check it
+     * before opening one.
+     */
+    public Optional<TransferView> findCachedResponse(UUID idempotencyKey, String fingerprint) {
+        CachedResponse cached = idempotencyResponseCache.getIfPresent(idempotencyKey);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        checkFingerprint(idempotencyKey, cached.requestFingerprint(), fingerprint);
+        return Optional.of(cached.transferView());
+    }
+
+    /**
+     * Returns the response for a live key: the stored response once the key is completed, or the transfer's current
+     * state, marked in flight, while it is still being processed. Expired keys are released and reported as absent.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Replay> findReplay(UUID idempotencyKey, String fingerprint) {
+        Optional<TransferView> cached = findCachedResponse(idempotencyKey, fingerprint);
+        if (cached.isPresent()) {
+            return cached.map(transferView -> new Replay(transferView, false));
+        }
+
+        Optional<IdempotencyKey> existingKeyOpt = idempotencyKeyRepository.findById(idempotencyKey);
+        if (existingKeyOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IdempotencyKey existingKey = existingKeyOpt.get();
+        if (!existingKey.getExpiryAt().isAfter(LocalDateTime.now())) {
+            // Key expired, so we can process it as a new request. Delete the old key.
+            idempotencyKeyRepository.delete(existingKey);
+            idempotencyKeyRepository.flush();
+            idempotencyResponseCache.invalidate(idempotencyKey);
+            return Optional.empty();
+        }
+
+        checkFingerprint(idempotencyKey, existingKey.getRequestFingerprint(), fingerprint);
+
+        if (existingKey.getStatus() == IdempotencyKeyStatus.IN_PROGRESS) {
+            // Reserved by a request that is still in flight, or that died before finishing (see TransferRecoverySweeper).
+            log.warn("Idempotent key {} is still being processed. Returning current transfer state.", idempotencyKey);
+            return Optional.of(transferRepository.findById(existingKey.getTransferId())
+                    .map(transfer -> new Replay(TransferMapper.toTransferView(transfer), true))
+                    .orElseThrow(() -> conflict(idempotencyKey)));
+        }
+
+        log.warn("Idempotent key {} already processed. Returning original response.", idempotencyKey);
+        TransferView transferView = existingKey.getResponseData() != null
+                ? TransferViewCodec.decode(existingKey.getResponseData())
+                : migrateLegacyResponse(existingKey);
+        cacheAfterCommit(existingKey, transferView);
+        return Optional.of(new Replay(transferView, false));
+    }
+
+    /**
+     * Reserves the key and saves the new transfer under it. The key is inserted, never merged, and flushed first, so
+     * a concurrent request holding the same key fails here with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} before it has written anything; callers
+     * catch that and wait for the winner's response instead of repeating the work.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Transfer reserve(UUID idempotencyKey, String fingerprint, Transfer transfer) {
+        IdempotencyKey reserved = idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .expiryAt(LocalDateTime.now().plusHours(KEY_TTL_HOURS))
+                .status(IdempotencyKeyStatus.IN_PROGRESS)
+                .requestFingerprint(fingerprint)
+                .newRecord(true)
+                .build());
+        Transfer saved = transferRepository.save(transfer);
+        reserved.setTransferId(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Deletes a reserved key together with its transfer, for a request that was turned away before anything was
+     * posted to the ledger.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(UUID idempotencyKey, Transfer transfer) {
+        idempotencyKeyRepository.deleteById(idempotencyKey);
+        transferRepository.delete(transfer);
+    }
+
+    /**
+     * Stores the final response on the reserved key, if it is still reserved for the transfer. A key that was
+     * released, expired and taken over, or completed in the meantime is left as it is.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(UUID idempotencyKey, TransferView transferView) {
+        Optional<IdempotencyKey> reserved = idempotencyKeyRepository.findById(idempotencyKey)
+                .filter(key -> key.getStatus() == IdempotencyKeyStatus.IN_PROGRESS)
+                .filter(key -> transferView.getId().equals(key.getTransferId()));
+        if (reserved.isEmpty()) {
+            log.warn("Idempotency key {} is no longer reserved for transfer {}; its response is not stored.",
+                    idempotencyKey, transferView.getId());
+            return;
+        }
+        IdempotencyKey key = reserved.get();
+        key.setResponseData(TransferViewCodec.encode(transferView));
+        key.setResponseStatusCode(200); // Assuming success
+        key.setExpiryAt(LocalDateTime.now().plusHours(KEY_TTL_HOURS));
+        key.setStatus(IdempotencyKeyStatus.COMPLETED);
+        idempotencyKeyRepository.save(key);
+        cacheAfterCommit(key, transferView);
+    }
+
+    /**
+     * Stores the final response on every key still reserved for one of the given transfers.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void completePending(Collection<Transfer> transfers) {
+        Map<UUID, Transfer> transfersById = transfers.stream()
+                .collect(Collectors.toMap(Transfer::getId, Function.identity()));
+        for (IdempotencyKey key : idempotencyKeyRepository.findByTransferIdIn(transfersById.keySet())) {
+            if (key.getStatus() == IdempotencyKeyStatus.IN_PROGRESS) {
+                TransferView transferView = TransferMapper.toTransferView(transfersById.get(key.getTransferId()));
+                key.setResponseData(TransferViewCodec.encode(transferView));
+                key.setResponseStatusCode(200);
+                key.setStatus(IdempotencyKeyStatus.COMPLETED);
+                idempotencyKeyRepository.save(key);
+                cacheAfterCommit(key, transferView);
+            }
+        }
+    }
+
+    /**
+     * Runs the request unless another request with the same key is already running on this instance, in which case
+     * its response is awaited in memory instead of polling the database. If that request ends without a response, or
+     * takes longer than {@code transfer.idempotency.in-flight.max-wait}, the stored key decides, as for duplicates
+     * arriving at other instances. Needs no transaction.
+     */
+    public TransferView runOnce(UUID idempotencyKey, String fingerprint, Supplier<TransferView> request) {
+        InFlight inFlight = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlightResponses.putIfAbsent(idempotencyKey, inFlight);
+        if (existing != null) {
+            return awaitInFlight(idempotencyKey, fingerprint, existing);
+        }
+        try {
+            TransferView transferView = request.get();
+            inFlight.response().complete(transferView);
+            return transferView;
+        } finally {
+            inFlightResponses.remove(idempotencyKey, inFlight);
+            inFlight.response().complete(null);
+        }
+    }
+
+    /**
+     * Returns the response for a key held by a concurrent request, in a transaction of its own, without waiting for
+     * that request to finish. Fails with {@link IdempotencyKeyConflictException} if the key is gone, i.e. the
+     * request that held it rolled back.
+     */
+    public Replay currentResponse(UUID idempotencyKey, String fingerprint) {
+        return transactionOperations.execute(status -> findReplay(idempotencyKey, fingerprint))
+                .orElseThrow(() -> conflict(idempotencyKey));
+    }
+
+    /**
+     * Waits for the concurrent request holding the key to complete and returns its response. Polls every
+     * {@code transfer.idempotency.in-flight.poll-interval}; after {@code max-wait} the transfer's current state is
+     * returned instead, as for any replay of an in-flight key.
+     */
+    public TransferView awaitResponse(UUID idempotencyKey, String fingerprint) {
+        long deadline = System.nanoTime() + inFlightMaxWait.toNanos();
+        while (true) {
+            Optional<TransferView> cached = findCachedResponse(idempotencyKey, fingerprint);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            Replay replay = currentResponse(idempotencyKey, fingerprint);
+            if (!replay.inFlight() || System.nanoTime() >= deadline) {
+                return replay.transferView();
+            }
+            try {
+                Thread.sleep(inFlightPollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return replay.transferView();
+            }
+        }
+    }
+
+    private TransferView awaitInFlight(UUID idempotencyKey, String fingerprint, InFlight inFlight) {
+        checkFingerprint(idempotencyKey, inFlight.fingerprint(), fingerprint);
+        try {
+            TransferView transferView = inFlight.response().get(inFlightMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+            if (transferView != null) {
+                return transferView;
+            }
+        } catch (TimeoutException e) {
+            return currentResponse(idempotencyKey, fingerprint).transferView();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return currentResponse(idempotencyKey, fingerprint).transferView();
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; fall through to the stored key.
+        }
+        return awaitResponse(idempotencyKey, fingerprint);
+    }
+
+    // Only committed responses are cached; a rolled-back completion must not be replayed.
+    private void cacheAfterCommit(IdempotencyKey key, TransferView transferView) {
+        CachedResponse response = new CachedResponse(transferView, key.getExpiryAt(), key.getRequestFingerprint());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            idempotencyResponseCache.put(key.getIdempotencyKey(), response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                idempotencyResponseCache.put(key.getIdempotencyKey(), response);
+            }
+        });
+    }
+
+    // Rows written before the binary encoding hold JSON; re-encode them on first replay. Rows that are never replayed
+    // simply expire, so no bulk migration is needed.
+    private TransferView migrateLegacyResponse(IdempotencyKey key) {
+        try {
+            TransferView transferView = objectMapper.readValue(key.getResponseBody(), TransferView.class);
+            key.setResponseData(TransferViewCodec.encode(transferView));
+            key.setResponseBody(null);
+            return transferView;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not deserialize stored idempotent response", e);
+        }
+    }
+
+    // Keys stored before fingerprints were recorded have none and match any payload.
+    static void checkFingerprint(UUID idempotencyKey, String stored, String fingerprint) {
+        if (stored != null && !Objects.equals(stored, fingerprint)) {
+            throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key " + idempotencyKey + " was already used with a different request payload");
+        }
+    }
+
+    static IdempotencyKeyConflictException conflict(UUID idempotencyKey) {
+        return new IdempotencyKeyConflictException("A request with Idempotency-Key " + idempotencyKey + " is already being processed");
+    }
+
+    /**
+     * A completed response held in the idempotency cache, with the expiry and request fingerprint of its key.
+     */
+    public record CachedResponse(TransferView transferView, LocalDateTime expiryAt, String requestFingerprint) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<TransferView> response) {
+    }
+
+    /**
+     * The response replayed for a known key; {@code inFlight} while the request that reserved it is still running.
+     */
+    public record Replay(TransferView transferView, boolean inFlight) {
+    }
+}
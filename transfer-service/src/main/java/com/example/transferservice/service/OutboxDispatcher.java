@@ -0,0 +1,135 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.domain.OutboxEvent;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.repository.OutboxEventRepository;
+import com.example.transferservice.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the transfer outbox to the ledger's batch endpoint. Due events are claimed in pages of
+ * {@code batch-size * parallelism}, split into ledger calls of {@code batch-size}, and posted at most
+ * {@code parallelism} at a time.
+ * <p>
+ * An event is deleted in the same transaction that records its transfer's outcome. Failed calls are retried with
+ * exponential backoff and jitter, without a retry limit: the ledger may already have applied a transfer whose answer
+ * was lost, so only the ledger can settle it, and it deduplicates re-posts by transfer id. Assumes a single
+ * dispatching instance.
+ */
+@Component
+@ConditionalOnProperty(name = "transfer.outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransferRepository transferRepository;
+    private final IdempotencyService idempotencyService;
+    private final LedgerServiceClient ledgerServiceClient;
+    private final Executor transferBatchExecutor;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${transfer.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${transfer.outbox.parallelism}")
+    private int parallelism;
+
+    @Value("${transfer.outbox.retry.initial-backoff}")
+    private Duration initialBackoff;
+
+    @Value("${transfer.outbox.retry.max-backoff}")
+    private Duration maxBackoff;
+
+    @Scheduled(fixedDelayString = "${transfer.outbox.poll-interval}")
+    public void dispatch() {
+        int pageSize = batchSize * parallelism;
+        List<OutboxEvent> due;
+        do {
+            due = outboxEventRepository.findByNextAttemptAtLessThanEqual(LocalDateTime.now(),
+                    PageRequest.of(0, pageSize, Sort.by("id")));
+            List<CompletableFuture<Void>> calls = new ArrayList<>();
+            for (int start = 0; start < due.size(); start += batchSize) {
+                List<OutboxEvent> chunk = due.subList(start, Math.min(start + batchSize, due.size()));
+                calls.add(CompletableFuture.runAsync(() -> dispatchChunk(chunk), transferBatchExecutor));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+            // A full page means more events may be due; failed ones were pushed into the future, so this ends.
+        } while (due.size() == pageSize);
+    }
+
+    private void dispatchChunk(List<OutboxEvent> events) {
+        List<Transfer> transfers = transferRepository.findAllById(events.stream().map(OutboxEvent::getTransferId).toList());
+        Map<String, LedgerTransferOutcome> outcomes;
+        try {
+            outcomes = ledgerServiceClient.postTransfers(transfers.stream().map(TransferMapper::toLedgerRequest).toList())
+                    .blockOptional().orElse(List.of()).stream()
+                    .collect(Collectors.toMap(LedgerTransferResult::getTransferId, LedgerTransferResult::getOutcome));
+        } catch (Exception e) {
+            log.warn("Ledger service call failed for {} outbox events, will retry", events.size(), e);
+            outcomes = Map.of();
+        }
+
+        Map<String, LedgerTransferOutcome> results = outcomes;
+        transactionOperations.executeWithoutResult(tx -> resolve(events, transfers, results));
+    }
+
+    private void resolve(List<OutboxEvent> events, List<Transfer> transfers, Map<String, LedgerTransferOutcome> outcomes) {
+        Map<UUID, Transfer> transfersById = transfers.stream().collect(Collectors.toMap(Transfer::getId, Function.identity()));
+        List<Transfer> resolved = new ArrayList<>();
+        List<OutboxEvent> done = new ArrayList<>();
+        List<OutboxEvent> retries = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Transfer transfer = transfersById.get(event.getTransferId());
+            LedgerTransferOutcome outcome = transfer == null ? null : outcomes.get(transfer.getId().toString());
+            if (transfer == null) {
+                log.error("Dropping outbox event {} for unknown transfer {}", event.getId(), event.getTransferId());
+                done.add(event);
+            } else if (outcome != null) {
+                transfer.setStatus(outcome.isSuccessful() ? TransferStatus.COMPLETED : TransferStatus.FAILED);
+                resolved.add(transfer);
+                done.add(event);
+            } else {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+                retries.add(event);
+            }
+        }
+
+        transferRepository.saveAll(resolved);
+        idempotencyService.completePending(resolved);
+        outboxEventRepository.deleteAllInBatch(done);
+        outboxEventRepository.saveAll(retries);
+    }
+
+    // Exponential backoff with "equal jitter": half of the delay is fixed, the other half random.
+    Duration backoff(int attempts) {
+        long delay = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = Math.min(delay, maxBackoff.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+}
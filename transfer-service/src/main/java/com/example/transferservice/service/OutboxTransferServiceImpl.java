@@ -0,0 +1,95 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.domain.OutboxEvent;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.repository.OutboxEventRepository;
+import com.example.transferservice.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link TransferService} that accepts transfers without calling the ledger, enabled with
+ * {@code transfer.outbox.enabled=true}. Each transfer is stored as {@code PENDING} together with an
+ * {@link OutboxEvent} in one local transaction, and posted to the ledger later by the {@link OutboxDispatcher}.
+ */
+@Service
+@ConditionalOnProperty(name = "transfer.outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxTransferServiceImpl implements TransferService {
+
+    private final TransferRepository transferRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final IdempotencyService idempotencyService;
+    private final TransactionOperations transactionOperations;
+
+    @Override
+    public TransferView createTransfer(UUID idempotencyKey, CreateTransferRequest request) {
+        String fingerprint = IdempotencyService.fingerprint(request);
+
+        // Retries of completed requests are answered from the cache, without opening a transaction.
+        Optional<TransferView> cached = idempotencyService.findCachedResponse(idempotencyKey, fingerprint);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        try {
+            return transactionOperations.execute(status -> accept(idempotencyKey, fingerprint, request));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key was accepted first; acceptance is immediate, so return its state.
+            return idempotencyService.currentResponse(idempotencyKey, fingerprint).transferView();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferView getTransfer(UUID id) {
+        return transferRepository.findById(id)
+                .map(TransferMapper::toTransferView)
+                .orElseThrow(() -> new RuntimeException("Transfer not found")); // Replace with specific exception
+    }
+
+    @Override
+    @Transactional
+    public List<TransferView> createBatchTransfers(List<CreateTransferRequest> requests) {
+        List<Transfer> transfers = transferRepository.saveAll(requests.stream()
+                .map(request -> TransferMapper.toTransfer(request, TransferStatus.PENDING))
+                .toList());
+        outboxEventRepository.saveAll(transfers.stream().map(OutboxTransferServiceImpl::newEvent).toList());
+        return transfers.stream()
+                .map(TransferMapper::toTransferView)
+                .toList();
+    }
+
+    private TransferView accept(UUID idempotencyKey, String fingerprint, CreateTransferRequest request) {
+        Optional<IdempotencyService.Replay> replay = idempotencyService.findReplay(idempotencyKey, fingerprint);
+        if (replay.isPresent()) {
+            return replay.get().transferView();
+        }
+
+        // The key stays IN_PROGRESS until the dispatcher completes it; replays meanwhile get the current transfer state.
+        Transfer transfer = idempotencyService.reserve(idempotencyKey, fingerprint,
+                TransferMapper.toTransfer(request, TransferStatus.PENDING));
+        outboxEventRepository.save(newEvent(transfer));
+        return TransferMapper.toTransferView(transfer);
+    }
+
+    private static OutboxEvent newEvent(Transfer transfer) {
+        return OutboxEvent.builder()
+                .transferId(transfer.getId())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
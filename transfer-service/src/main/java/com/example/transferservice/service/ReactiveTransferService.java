@@ -0,0 +1,14 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.TransferView;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReactiveTransferService {
+    Mono<TransferView> createTransfer(UUID idempotencyKey, CreateTransferRequest request);
+    Mono<TransferView> getTransfer(UUID id);
+    Mono<List<TransferView>> createBatchTransfers(List<CreateTransferRequest> requests);
+}
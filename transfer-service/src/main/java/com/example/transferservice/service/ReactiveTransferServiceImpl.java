@@ -0,0 +1,282 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.domain.IdempotencyKeyRecord;
+import com.example.transferservice.domain.IdempotencyKeyStatus;
+import com.example.transferservice.domain.TransferRecord;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.exception.IdempotencyKeyConflictException;
+import com.example.transferservice.exception.LedgerOverloadedException;
+import com.example.transferservice.repository.ReactiveIdempotencyKeyRepository;
+import com.example.transferservice.repository.ReactiveTransferRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking counterpart of {@link TransferServiceImpl}, active with the {@code reactive} profile.
+ * <p>
+ * There is no surrounding transaction: every repository call borrows an R2DBC connection only for its own statement,
+ * so no connection is held while the ledger call is in flight. A crash between the steps leaves the transfer in
+ * {@code PROCESSING}, as it would after a ledger timeout on the blocking stack.
+ * <p>
+ * {@code Idempotency-Key}s are reserved {@code IN_PROGRESS} before the transfer is saved, as in
+ * {@link IdempotencyService}, so concurrent duplicates wait for the first request's response instead of posting the
+ * transfer to the ledger again. Duplicates arriving at the same instance subscribe to that response directly; only
+ * those arriving elsewhere poll the stored key.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTransferServiceImpl implements ReactiveTransferService {
+
+    private static final long KEY_TTL_HOURS = 24;
+
+    private final ReactiveTransferRepository transferRepository;
+    private final ReactiveIdempotencyKeyRepository idempotencyKeyRepository;
+    private final LedgerServiceClient ledgerServiceClient;
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, InFlight> inFlightResponses = new ConcurrentHashMap<>();
+
+    @Value("${transfer.idempotency.in-flight.poll-interval}")
+    private Duration inFlightPollInterval;
+
+    @Value("${transfer.idempotency.in-flight.max-wait}")
+    private Duration inFlightMaxWait;
+
+    @Value("${transfer.batch.chunk-size}")
+    private int batchChunkSize;
+
+    @Value("${transfer.batch.concurrency}")
+    private int batchConcurrency;
+
+    @Override
+    public Mono<TransferView> createTransfer(UUID idempotencyKey, CreateTransferRequest request) {
+        String fingerprint = IdempotencyService.fingerprint(request);
+        InFlight inFlight = inFlightResponses.get(idempotencyKey);
+        if (inFlight != null) {
+            return awaitInFlight(idempotencyKey, fingerprint, inFlight);
+        }
+        return idempotencyKeyRepository.findById(idempotencyKey)
+                .flatMap(existingKey -> {
+                    if (existingKey.getExpiryAt().isAfter(LocalDateTime.now())) {
+                        return replay(idempotencyKey, fingerprint, existingKey, deadline());
+                    }
+                    // Key expired, so we can process it as a new request. Delete the old key.
+                    return idempotencyKeyRepository.delete(existingKey).then(Mono.<TransferView>empty());
+                })
+                .switchIfEmpty(Mono.defer(() -> processTransfer(idempotencyKey, fingerprint, request)));
+    }
+
+    @Override
+    public Mono<TransferView> getTransfer(UUID id) {
+        return transferRepository.findById(id)
+                .map(TransferMapper::toTransferView)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Transfer not found")));
+    }
+
+    @Override
+    public Mono<List<TransferView>> createBatchTransfers(List<CreateTransferRequest> requests) {
+        return transferRepository.saveAll(requests.stream().map(this::newTransfer).toList())
+                .collectList()
+                .flatMap(transfers -> Flux.fromIterable(transfers)
+                        .buffer(batchChunkSize)
+                        .flatMap(this::postChunk, batchConcurrency)
+                        .collectMap(LedgerTransferResult::getTransferId, LedgerTransferResult::getOutcome)
+                        .flatMapMany(outcomes -> {
+                            for (TransferRecord transfer : transfers) {
+                                LedgerTransferOutcome outcome = outcomes.get(transfer.getId().toString());
+                                transfer.setStatus(outcome != null && outcome.isSuccessful() ? TransferStatus.COMPLETED : TransferStatus.FAILED);
+                                transfer.setNewRecord(false);
+                            }
+                            return transferRepository.saveAll(transfers);
+                        })
+                        .map(TransferMapper::toTransferView)
+                        .collectList());
+    }
+
+    private Mono<TransferView> processTransfer(UUID idempotencyKey, String fingerprint, CreateTransferRequest request) {
+        InFlight inFlight = new InFlight(fingerprint, Sinks.one());
+        InFlight existing = inFlightResponses.putIfAbsent(idempotencyKey, inFlight);
+        if (existing != null) {
+            return awaitInFlight(idempotencyKey, fingerprint, existing);
+        }
+        TransferRecord newTransfer = newTransfer(request);
+        // The key is inserted before anything else, so the primary key decides which of several concurrent requests
+        // does the work; the others wait for its response instead of posting the transfer again.
+        return reserve(idempotencyKey, fingerprint, newTransfer)
+                .flatMap(reserved -> reserved
+                        ? postTransfer(idempotencyKey, fingerprint, newTransfer)
+                        : awaitResponse(idempotencyKey, fingerprint, deadline()))
+                .doOnNext(transferView -> inFlight.response().tryEmitValue(transferView))
+                .doFinally(signal -> {
+                    inFlightResponses.remove(idempotencyKey, inFlight);
+                    // No response on error or cancellation: local waiters fall back to the stored key.
+                    inFlight.response().tryEmitEmpty();
+                });
+    }
+
+    // Waits for a request with the same key running on this instance, without polling the database. If it ends
+    // without a response, or takes longer than the maximum wait, the stored key decides as for any other duplicate.
+    private Mono<TransferView> awaitInFlight(UUID idempotencyKey, String fingerprint, InFlight inFlight) {
+        try {
+            IdempotencyService.checkFingerprint(idempotencyKey, inFlight.fingerprint(), fingerprint);
+        } catch (IdempotencyKeyConflictException e) {
+            return Mono.error(e);
+        }
+        return inFlight.response().asMono()
+                .timeout(inFlightMaxWait, Mono.defer(() -> awaitResponse(idempotencyKey, fingerprint, System.nanoTime())))
+                .switchIfEmpty(Mono.defer(() -> awaitResponse(idempotencyKey, fingerprint, deadline())));
+    }
+
+    private Mono<Boolean> reserve(UUID idempotencyKey, String fingerprint, TransferRecord transfer) {
+        IdempotencyKeyRecord reservation = IdempotencyKeyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .expiryAt(LocalDateTime.now().plusHours(KEY_TTL_HOURS))
+                .transferId(transfer.getId())
+                .status(IdempotencyKeyStatus.IN_PROGRESS)
+                .requestFingerprint(fingerprint)
+                .newRecord(true)
+                .build();
+        return idempotencyKeyRepository.save(reservation)
+                .then(transferRepository.save(transfer)
+                        // Without a transaction to roll back, free the key so a retry can start afresh.
+                        .onErrorResume(e -> idempotencyKeyRepository.deleteById(idempotencyKey).then(Mono.error(e))))
+                .thenReturn(true)
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(false));
+    }
+
+    private Mono<TransferView> postTransfer(UUID idempotencyKey, String fingerprint, TransferRecord transfer) {
+        return ledgerServiceClient.postTransfer(toLedgerRequest(transfer))
+                .thenReturn(TransferStatus.COMPLETED)
+                .onErrorResume(e -> {
+                    if (e instanceof LedgerOverloadedException) {
+                        // Shed before reaching the ledger: undo the reservation and answer 503, so a retry with the
+                        // same key starts afresh.
+                        return idempotencyKeyRepository.deleteById(idempotencyKey)
+                                .then(transferRepository.delete(transfer))
+                                .then(Mono.error(e));
+                    }
+                    log.error("Ledger service call failed for transfer {}", transfer.getId(), e);
+                    return Mono.just(TransferStatus.FAILED);
+                })
+                .flatMap(status -> {
+                    transfer.setStatus(status);
+                    transfer.setNewRecord(false);
+                    return transferRepository.save(transfer);
+                })
+                .map(TransferMapper::toTransferView)
+                .flatMap(transferView -> complete(idempotencyKey, fingerprint, transferView).thenReturn(transferView));
+    }
+
+    // Updates the reserved key with the final response.
+    private Mono<IdempotencyKeyRecord> complete(UUID idempotencyKey, String fingerprint, TransferView transferView) {
+        return Mono.fromCallable(() -> IdempotencyKeyRecord.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .responseData(TransferViewCodec.encode(transferView))
+                        .responseStatusCode(200) // Assuming success
+                        .expiryAt(LocalDateTime.now().plusHours(KEY_TTL_HOURS))
+                        .transferId(transferView.getId())
+                        .status(IdempotencyKeyStatus.COMPLETED)
+                        .requestFingerprint(fingerprint)
+                        .newRecord(false)
+                        .build())
+                .onErrorMap(e -> new RuntimeException("Could not serialize response for idempotent storage", e))
+                .flatMap(idempotencyKeyRepository::save);
+    }
+
+    /**
+     * Waits for the concurrent request holding the key to complete and returns its response, polling every
+     * {@code transfer.idempotency.in-flight.poll-interval} like the blocking stack. Fails with
+     * {@link IdempotencyKeyConflictException} if the key is gone, i.e. the request that held it gave up.
+     */
+    private Mono<TransferView> awaitResponse(UUID idempotencyKey, String fingerprint, long deadline) {
+        return idempotencyKeyRepository.findById(idempotencyKey)
+                .switchIfEmpty(Mono.error(() -> IdempotencyService.conflict(idempotencyKey)))
+                .flatMap(existingKey -> replay(idempotencyKey, fingerprint, existingKey, deadline));
+    }
+
+    private Mono<TransferView> replay(UUID idempotencyKey, String fingerprint, IdempotencyKeyRecord existingKey,
+                                      long deadline) {
+        try {
+            IdempotencyService.checkFingerprint(idempotencyKey, existingKey.getRequestFingerprint(), fingerprint);
+        } catch (IdempotencyKeyConflictException e) {
+            return Mono.error(e);
+        }
+        if (existingKey.getStatus() == IdempotencyKeyStatus.IN_PROGRESS) {
+            if (System.nanoTime() < deadline) {
+                return Mono.delay(inFlightPollInterval)
+                        .then(Mono.defer(() -> awaitResponse(idempotencyKey, fingerprint, deadline)));
+            }
+            log.warn("Idempotent key {} is still being processed. Returning current transfer state.", idempotencyKey);
+            return transferRepository.findById(existingKey.getTransferId())
+                    .map(TransferMapper::toTransferView)
+                    .switchIfEmpty(Mono.error(() -> IdempotencyService.conflict(idempotencyKey)));
+        }
+        log.warn("Idempotent key {} already processed. Returning original response.", idempotencyKey);
+        // Rows written before the binary encoding still hold JSON.
+        return Mono.fromCallable(() -> existingKey.getResponseData() != null
+                        ? TransferViewCodec.decode(existingKey.getResponseData())
+                        : objectMapper.readValue(existingKey.getResponseBody(), TransferView.class))
+                .onErrorMap(e -> new RuntimeException("Could not deserialize stored idempotent response", e));
+    }
+
+    private long deadline() {
+        return System.nanoTime() + inFlightMaxWait.toNanos();
+    }
+
+    private record InFlight(String fingerprint, Sinks.One<TransferView> response) {
+    }
+
+    private Flux<LedgerTransferResult> postChunk(List<TransferRecord> chunk) {
+        return ledgerServiceClient.postTransfers(chunk.stream().map(this::toLedgerRequest).toList())
+                .flatMapMany(Flux::fromIterable)
+                .onErrorResume(e -> {
+                    log.error("Ledger service batch call failed for {} transfers", chunk.size(), e);
+                    return Flux.empty();
+                });
+    }
+
+    private TransferRecord newTransfer(CreateTransferRequest request) {
+        return TransferRecord.builder()
+                .id(UUID.randomUUID())
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(Money.of(request.getAmount()).toBigDecimal())
+                .status(TransferStatus.PROCESSING)
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .newRecord(true)
+                .build();
+    }
+
+    private LedgerTransferRequest toLedgerRequest(TransferRecord transfer) {
+        return LedgerTransferRequest.builder()
+                .transferId(transfer.getId().toString())
+                .fromAccountId(transfer.getFromAccountId())
+                .toAccountId(transfer.getToAccountId())
+                .amount(Money.of(transfer.getAmount()))
+                .build();
+    }
+}
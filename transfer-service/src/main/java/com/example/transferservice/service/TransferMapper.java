@@ -0,0 +1,58 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferRecord;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.TransferView;
+
+/**
+ * Maps {@link Transfer} entities and {@link TransferRecord}s to their API and ledger representations.
+ */
+public final class TransferMapper {
+
+    private TransferMapper() {
+    }
+
+    public static Transfer toTransfer(CreateTransferRequest request, TransferStatus status) {
+        return Transfer.builder()
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(Money.of(request.getAmount()))
+                .status(status)
+                .build();
+    }
+
+    public static TransferView toTransferView(Transfer transfer) {
+        return TransferView.builder()
+                .id(transfer.getId())
+                .fromAccountId(transfer.getFromAccountId())
+                .toAccountId(transfer.getToAccountId())
+                .amount(transfer.getAmount())
+                .status(transfer.getStatus())
+                .createdAt(transfer.getCreatedAt())
+                .build();
+    }
+
+    public static TransferView toTransferView(TransferRecord transfer) {
+        return TransferView.builder()
+                .id(transfer.getId())
+                .fromAccountId(transfer.getFromAccountId())
+                .toAccountId(transfer.getToAccountId())
+                .amount(Money.of(transfer.getAmount()))
+                .status(transfer.getStatus())
+                .createdAt(transfer.getCreatedAt())
+                .build();
+    }
+
+    public static LedgerTransferRequest toLedgerRequest(Transfer transfer) {
+        return LedgerTransferRequest.builder()
+                .transferId(transfer.getId().toString())
+                .fromAccountId(transfer.getFromAccountId())
+                .toAccountId(transfer.getToAccountId())
+                .amount(transfer.getAmount())
+                .build();
+    }
+}
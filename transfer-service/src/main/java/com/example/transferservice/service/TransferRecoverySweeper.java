@@ -0,0 +1,85 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves transfers left in {@code PROCESSING}, e.g. when the service stopped between reserving a transfer and
+ * recording the ledger's answer.
+ * <p>
+ * Stale transfers are re-posted to the ledger's batch endpoint. This is safe because the ledger deduplicates on the
+ * transfer id: a transfer it already applied comes back as {@code DUPLICATE} and is marked {@code COMPLETED}.
+ * Transfers are left untouched if the ledger cannot be reached, and picked up again on the next run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransferRecoverySweeper {
+
+    private final TransferRepository transferRepository;
+    private final IdempotencyService idempotencyService;
+    private final LedgerServiceClient ledgerServiceClient;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${transfer.recovery.stale-after}")
+    private Duration staleAfter;
+
+    @Value("${transfer.recovery.batch-size}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${transfer.recovery.interval}", initialDelayString = "${transfer.recovery.interval}")
+    public void sweep() {
+        List<Transfer> stuckTransfers = transferRepository.findByStatusAndCreatedAtBefore(TransferStatus.PROCESSING,
+                LocalDateTime.now().minus(staleAfter), PageRequest.of(0, batchSize, Sort.by("createdAt")));
+        if (stuckTransfers.isEmpty()) {
+            return;
+        }
+
+        log.info("Recovering {} transfers stuck in PROCESSING", stuckTransfers.size());
+        Map<String, LedgerTransferOutcome> outcomes;
+        try {
+            outcomes = ledgerServiceClient.postTransfers(stuckTransfers.stream().map(TransferMapper::toLedgerRequest).toList())
+                    .blockOptional().orElse(List.of()).stream()
+                    .collect(Collectors.toMap(LedgerTransferResult::getTransferId, LedgerTransferResult::getOutcome));
+        } catch (Exception e) {
+            log.warn("Ledger service unavailable, will retry recovery of {} transfers", stuckTransfers.size(), e);
+            return;
+        }
+
+        transactionOperations.executeWithoutResult(tx -> resolve(stuckTransfers, outcomes));
+    }
+
+    private void resolve(List<Transfer> transfers, Map<String, LedgerTransferOutcome> outcomes) {
+        List<Transfer> resolved = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            LedgerTransferOutcome outcome = outcomes.get(transfer.getId().toString());
+            if (outcome != null) {
+                transfer.setStatus(outcome.isSuccessful() ? TransferStatus.COMPLETED : TransferStatus.FAILED);
+                resolved.add(transfer);
+                log.info("Recovered transfer {} as {}", transfer.getId(), transfer.getStatus());
+            }
+        }
+        transferRepository.saveAll(resolved);
+        // Let later replays of the original requests see the final responses.
+        idempotencyService.completePending(resolved);
+    }
+}
@@ -1,129 +1,165 @@
 package com.example.transferservice.service;
 
 import com.example.transferservice.client.LedgerServiceClient;
-import com.example.transferservice.domain.IdempotencyKey;
 import com.example.transferservice.domain.Transfer;
 import com.example.transferservice.domain.TransferStatus;
 import com.example.transferservice.dto.CreateTransferRequest;
-import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.dto.LedgerTransferOutcome;
 import com.example.transferservice.dto.TransferView;
-import com.example.transferservice.exception.IdempotencyKeyConflictException;
-import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.exception.LedgerOverloadedException;
+import com.example.transferservice.metrics.TransferMetrics;
 import com.example.transferservice.repository.TransferRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+/**
+ * {@link TransferService} that posts each transfer to the ledger while the request waits. This is the default;
+ * {@code transfer.outbox.enabled=true} switches to {@link OutboxTransferServiceImpl}.
+ */
 @Service
+@ConditionalOnProperty(name = "transfer.outbox.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class TransferServiceImpl implements TransferService {
 
     private final TransferRepository transferRepository;
-    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyService idempotencyService;
     private final LedgerServiceClient ledgerServiceClient;
-    private final ObjectMapper objectMapper;
-    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(20);
+    private final Executor transferBatchExecutor;
+    private final TransactionOperations transactionOperations;
+    private final TransferMetrics transferMetrics;
+
+    @Value("${transfer.batch.chunk-size}")
+    private int batchChunkSize;
 
     @Override
-    @Transactional
     public TransferView createTransfer(UUID idempotencyKey, CreateTransferRequest request) {
-        Optional<IdempotencyKey> existingKeyOpt = idempotencyKeyRepository.findById(idempotencyKey);
-
-        if (existingKeyOpt.isPresent()) {
-            IdempotencyKey existingKey = existingKeyOpt.get();
-            if (existingKey.getExpiryAt().isAfter(LocalDateTime.now())) {
-                log.warn("Idempotent key {} already processed. Returning original response.", idempotencyKey);
-                try {
-                    return objectMapper.readValue(existingKey.getResponseBody(), TransferView.class);
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException("Could not deserialize stored idempotent response", e);
-                }
-            } else {
-                // Key expired, so we can process it as a new request. Delete the old key.
-                idempotencyKeyRepository.delete(existingKey);
-            }
+        String fingerprint = IdempotencyService.fingerprint(request);
+
+        // Retries of completed requests are answered from the cache, without opening a transaction.
+        Optional<TransferView> cached = idempotencyService.findCachedResponse(idempotencyKey, fingerprint);
+        if (cached.isPresent()) {
+            return cached.get();
         }
+        return idempotencyService.runOnce(idempotencyKey, fingerprint, () -> process(idempotencyKey, fingerprint, request));
+    }
 
-        // Create and save the initial transfer record
-        Transfer transfer = Transfer.builder()
-                .fromAccountId(request.getFromAccountId())
-                .toAccountId(request.getToAccountId())
-                .amount(request.getAmount())
-                .status(TransferStatus.PROCESSING)
-                .build();
-        transfer = transferRepository.save(transfer);
-
-        // Call the ledger service
-        LedgerTransferRequest ledgerRequest = LedgerTransferRequest.builder()
-                .transferId(transfer.getId().toString())
-                .fromAccountId(request.getFromAccountId())
-                .toAccountId(request.getToAccountId())
-                .amount(request.getAmount())
-                .build();
+    @Override
+    public TransferView getTransfer(UUID id) {
+        return transferRepository.findById(id)
+                .map(TransferMapper::toTransferView)
+                .orElseThrow(() -> new RuntimeException("Transfer not found")); // Replace with specific exception
+    }
 
-        try {
-            ledgerServiceClient.postTransfer(ledgerRequest).block();
-            transfer.setStatus(TransferStatus.COMPLETED);
-        } catch (Exception e) {
-            log.error("Ledger service call failed for transfer {}", transfer.getId(), e);
-            transfer.setStatus(TransferStatus.FAILED);
+    @Override
+    public List<TransferView> createBatchTransfers(List<CreateTransferRequest> requests) {
+        List<Transfer> transfers = transferRepository.saveAll(requests.stream()
+                .map(request -> TransferMapper.toTransfer(request, TransferStatus.PROCESSING))
+                .toList());
+
+        // Chunks are posted to the ledger concurrently; each chunk is applied there in a single transaction.
+        Map<String, LedgerTransferOutcome> outcomes = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int start = 0; start < transfers.size(); start += batchChunkSize) {
+            List<Transfer> chunk = transfers.subList(start, Math.min(start + batchChunkSize, transfers.size()));
+            calls.add(CompletableFuture.runAsync(() -> postChunk(chunk, outcomes), transferBatchExecutor));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        for (Transfer transfer : transfers) {
+            LedgerTransferOutcome outcome = outcomes.get(transfer.getId().toString());
+            transfer.setStatus(outcome != null && outcome.isSuccessful() ? TransferStatus.COMPLETED : TransferStatus.FAILED);
+            transferMetrics.recordOutcome(transfer.getStatus());
         }
 
-        Transfer completedTransfer = transferRepository.save(transfer);
-        TransferView transferView = toTransferView(completedTransfer);
+        return transferRepository.saveAll(transfers).stream()
+                .map(TransferMapper::toTransferView)
+                .toList();
+    }
 
-        // Store the idempotency key and response
+    private TransferView process(UUID idempotencyKey, String fingerprint, CreateTransferRequest request) {
+        // First short transaction: replay a stored response, or reserve the key together with a PROCESSING transfer.
+        Reservation reservation;
         try {
-            IdempotencyKey newKey = IdempotencyKey.builder()
-                    .idempotencyKey(idempotencyKey)
-                    .responseBody(objectMapper.writeValueAsString(transferView))
-                    .responseStatusCode(200) // Assuming success
-                    .expiryAt(LocalDateTime.now().plusHours(24))
-                    .build();
-            idempotencyKeyRepository.saveAndFlush(newKey);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Could not serialize response for idempotent storage", e);
+            reservation = transactionOperations.execute(status -> reserve(idempotencyKey, fingerprint, request));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key reserved it first: wait for its result rather than redo the work.
+            return idempotencyService.awaitResponse(idempotencyKey, fingerprint);
+        }
+        if (reservation.replay() != null) {
+            return reservation.replay().inFlight()
+                    ? idempotencyService.awaitResponse(idempotencyKey, fingerprint)
+                    : reservation.replay().transferView();
         }
+        Transfer transfer = reservation.transfer();
 
+        // The ledger call runs outside any transaction, so no pooled connection is held while it is in flight.
+        TransferStatus status;
+        try {
+            ledgerServiceClient.postTransfer(TransferMapper.toLedgerRequest(transfer)).block();
+            status = TransferStatus.COMPLETED;
+        } catch (LedgerOverloadedException e) {
+            transferMetrics.recordError(e);
+            // Shed before it reached the ledger: undo the reservation so a retry with the same key starts afresh.
+            transactionOperations.executeWithoutResult(tx -> idempotencyService.release(idempotencyKey, transfer));
+            throw e;
+        } catch (Exception e) {
+            log.error("Ledger service call failed for transfer {}", transfer.getId(), e);
+            transferMetrics.recordError(e);
+            status = TransferStatus.FAILED;
+        }
 
+        // Second short transaction: record the outcome and the response for idempotent replays.
+        TransferStatus finalStatus = status;
+        TransferView transferView = transferMetrics.timeOutcomeUpdate(() ->
+                transactionOperations.execute(tx -> complete(idempotencyKey, transfer, finalStatus)));
+        transferMetrics.recordOutcome(finalStatus);
         return transferView;
     }
 
-    @Override
-    public TransferView getTransfer(UUID id) {
-        return transferRepository.findById(id)
-                .map(this::toTransferView)
-                .orElseThrow(() -> new RuntimeException("Transfer not found")); // Replace with specific exception
+    private Reservation reserve(UUID idempotencyKey, String fingerprint, CreateTransferRequest request) {
+        Optional<IdempotencyService.Replay> replay = transferMetrics.timeIdempotencyLookup(() ->
+                idempotencyService.findReplay(idempotencyKey, fingerprint));
+        if (replay.isPresent()) {
+            return new Reservation(replay.get(), null);
+        }
+        Transfer transfer = transferMetrics.timeTransferInsert(() -> idempotencyService.reserve(idempotencyKey, fingerprint,
+                TransferMapper.toTransfer(request, TransferStatus.PROCESSING)));
+        return new Reservation(null, transfer);
     }
 
-    @Override
-    public List<CompletableFuture<TransferView>> createBatchTransfers(List<CreateTransferRequest> requests) {
-        return requests.stream()
-                .map(request -> CompletableFuture.supplyAsync(() ->
-                        createTransfer(UUID.randomUUID(), request), batchExecutor))
-                .toList();
+    private TransferView complete(UUID idempotencyKey, Transfer transfer, TransferStatus status) {
+        transfer.setStatus(status);
+        TransferView transferView = TransferMapper.toTransferView(transferRepository.save(transfer));
+        idempotencyService.complete(idempotencyKey, transferView);
+        return transferView;
+    }
+
+    private void postChunk(List<Transfer> chunk, Map<String, LedgerTransferOutcome> outcomes) {
+        try {
+            ledgerServiceClient.postTransfers(chunk.stream().map(TransferMapper::toLedgerRequest).toList())
+                    .blockOptional().orElse(List.of())
+                    .forEach(result -> outcomes.put(result.getTransferId(), result.getOutcome()));
+        } catch (Exception e) {
+            log.error("Ledger service batch call failed for {} transfers", chunk.size(), e);
+            transferMetrics.recordError(e);
+        }
     }
 
-    private TransferView toTransferView(Transfer transfer) {
-        return TransferView.builder()
-                .id(transfer.getId())
-                .fromAccountId(transfer.getFromAccountId())
-                .toAccountId(transfer.getToAccountId())
-                .amount(transfer.getAmount())
-                .status(transfer.getStatus())
-                .createdAt(transfer.getCreatedAt())
-                .build();
+    private record Reservation(IdempotencyService.Replay replay, Transfer transfer) {
     }
 }
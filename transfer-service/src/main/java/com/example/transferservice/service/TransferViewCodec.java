@@ -0,0 +1,84 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the {@link TransferView}s stored for idempotent replays, used instead of JSON.
+ * <p>
+ * Version 1 is a fixed 51-byte big-endian record:
+ * {@code [byte version][16 bytes id][long fromAccountId][long toAccountId][long amount minor units][byte scale]
+ * [byte status][long createdAt epoch micros, UTC]}. Status codes are fixed here rather than taken from enum
+ * ordinals, so reordering {@link TransferStatus} cannot change the meaning of stored rows. A new layout gets a new
+ * version byte and {@link #decode} keeps reading the old ones.
+ */
+public final class TransferViewCodec {
+
+    public static final byte VERSION_1 = 1;
+    public static final int VERSION_1_LENGTH = 1 + 16 + 8 + 8 + 8 + 1 + 1 + 8;
+
+    private TransferViewCodec() {
+    }
+
+    public static byte[] encode(TransferView view) {
+        LocalDateTime createdAt = view.getCreatedAt();
+        long epochMicros = Math.addExact(Math.multiplyExact(createdAt.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                createdAt.getNano() / 1_000);
+        return ByteBuffer.allocate(VERSION_1_LENGTH)
+                .put(VERSION_1)
+                .putLong(view.getId().getMostSignificantBits())
+                .putLong(view.getId().getLeastSignificantBits())
+                .putLong(view.getFromAccountId())
+                .putLong(view.getToAccountId())
+                .putLong(view.getAmount().getMinorUnits())
+                .put((byte) view.getAmount().getScale())
+                .put(statusCode(view.getStatus()))
+                .putLong(epochMicros)
+                .array();
+    }
+
+    public static TransferView decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported stored response version: " + (data.length == 0 ? "empty" : data[0]));
+        }
+        if (data.length != VERSION_1_LENGTH) {
+            throw new IllegalArgumentException("Stored response has " + data.length + " bytes, expected " + VERSION_1_LENGTH);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, VERSION_1_LENGTH - 1);
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        long fromAccountId = buffer.getLong();
+        long toAccountId = buffer.getLong();
+        long minorUnits = buffer.getLong();
+        int scale = buffer.get();
+        TransferStatus status = status(buffer.get());
+        long epochMicros = buffer.getLong();
+        return new TransferView(id, fromAccountId, toAccountId, Money.ofMinor(minorUnits, scale), status,
+                LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L),
+                        (int) Math.floorMod(epochMicros, 1_000_000L) * 1_000, ZoneOffset.UTC));
+    }
+
+    private static byte statusCode(TransferStatus status) {
+        return switch (status) {
+            case PENDING -> 1;
+            case PROCESSING -> 2;
+            case COMPLETED -> 3;
+            case FAILED -> 4;
+        };
+    }
+
+    private static TransferStatus status(byte code) {
+        return switch (code) {
+            case 1 -> TransferStatus.PENDING;
+            case 2 -> TransferStatus.PROCESSING;
+            case 3 -> TransferStatus.COMPLETED;
+            case 4 -> TransferStatus.FAILED;
+            default -> throw new IllegalArgumentException("Unknown stored transfer status code: " + code);
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.transferservice.client;
+
+import com.example.transferservice.exception.LedgerOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedgerConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LedgerConcurrencyLimiter limiter =
+            new LedgerConcurrencyLimiter(meterRegistry, 2, 1, 4, 0.5, Duration.ofSeconds(1));
+
+    @Test
+    void limit_shouldShedCallsOverTheLimit_withoutSubscribingToThem() {
+        Sinks.Empty<Void> first = Sinks.empty();
+        Sinks.Empty<Void> second = Sinks.empty();
+        limiter.limit(first::asMono).subscribe();
+        limiter.limit(second::asMono).subscribe();
+
+        assertThrows(LedgerOverloadedException.class,
+                () -> limiter.limit(() -> Mono.error(new AssertionError("must not be called"))).block());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.get("ledger.client.limiter.rejected").counter().count());
+
+        first.tryEmitEmpty();
+        second.tryEmitEmpty();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void limit_shouldGrowOnFastCallsAndBackOffOnTimeouts() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        limiter.limit(pending::asMono).subscribe();
+        limiter.limit(Mono::empty).block();
+        limiter.limit(Mono::empty).block();
+        assertEquals(4, limiter.getLimit());
+        limiter.limit(Mono::empty).block();
+        assertEquals(4, limiter.getLimit());
+
+        assertThrows(RuntimeException.class,
+                () -> limiter.limit(() -> Mono.error(new TimeoutException("ledger too slow"))).block());
+        assertEquals(2, limiter.getLimit());
+        assertEquals(2.0, meterRegistry.get("ledger.client.limiter.limit").gauge().value());
+        pending.tryEmitEmpty();
+    }
+}
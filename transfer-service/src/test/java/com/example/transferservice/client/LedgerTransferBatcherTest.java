@@ -0,0 +1,124 @@
+package com.example.transferservice.client;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.dto.LedgerTransferRequest;
+import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.metrics.TransferMetrics;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedgerTransferBatcherTest {
+
+    @RegisterExtension
+    static WireMockExtension wireMockServer = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.options().dynamicPort())
+            .build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private LedgerTransferBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Sends the correlation id found in the Reactor context, as the ledger WebClient does
+        WebClient webClient = WebClient.builder()
+                .baseUrl(wireMockServer.baseUrl())
+                .filter((request, next) -> Mono.deferContextual(context -> next.exchange(ClientRequest.from(request)
+                        .header("X-Correlation-ID", context.getOrDefault("correlationId", "none"))
+                        .build())))
+                .build();
+        LedgerConcurrencyLimiter limiter = new LedgerConcurrencyLimiter(meterRegistry, 10, 1, 10, 0.9, Duration.ofSeconds(1));
+        // A linger far beyond the test, so only a full batch is sent
+        batcher = new LedgerTransferBatcher(webClient, limiter, new TransferMetrics(meterRegistry), meterRegistry, 4,
+                Duration.ofMinutes(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void submit_shouldSendOneBatchAndRouteEachOutcomeToItsCaller() {
+        // Given
+        wireMockServer.stubFor(WireMock.post("/ledger/transfers:batch")
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody("""
+                        [{"transferId":"t-1","outcome":"APPLIED"},{"transferId":"t-2","outcome":"DUPLICATE"},
+                         {"transferId":"t-3","outcome":"INSUFFICIENT_FUNDS"},{"transferId":"t-4","outcome":"APPLIED"}]""")));
+
+        // When
+        List<Mono<Void>> results = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            results.add(batcher.submit(request("t-" + i)).contextWrite(Context.of("correlationId", "c-1")).cache());
+        }
+        results.forEach(Mono::subscribe);
+
+        // Then
+        results.get(0).block(Duration.ofSeconds(5));
+        results.get(1).block(Duration.ofSeconds(5));
+        assertThrows(LedgerServiceException.class, () -> results.get(2).block(Duration.ofSeconds(5)));
+        results.get(3).block(Duration.ofSeconds(5));
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/ledger/transfers:batch"))
+                .withHeader("X-Correlation-ID", equalTo("c-1")));
+        assertEquals(4.0, meterRegistry.get("ledger.client.batch.size").summary().totalAmount());
+        assertEquals(4, meterRegistry.get("ledger.client.batch.wait").timer().count());
+        // The batch request is one ledger call, timed without the time its postings waited for it (recorded once the
+        // call has terminated, which can be just after the callers were completed)
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertEquals(1,
+                meterRegistry.get(TransferMetrics.STAGE_TIMER).tag("stage", "ledger_call").timer().count()));
+    }
+
+    @Test
+    void submit_shouldSendAMixedBatchUnderItsOwnCorrelationId() {
+        // Given
+        wireMockServer.stubFor(WireMock.post("/ledger/transfers:batch")
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody("""
+                        [{"transferId":"t-1","outcome":"APPLIED"},{"transferId":"t-2","outcome":"APPLIED"},
+                         {"transferId":"t-3","outcome":"APPLIED"},{"transferId":"t-4","outcome":"APPLIED"}]""")));
+
+        // When: postings of two different requests share the batch
+        List<Mono<Void>> results = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            results.add(batcher.submit(request("t-" + i)).contextWrite(Context.of("correlationId", "c-" + i % 2)).cache());
+        }
+        results.forEach(Mono::subscribe);
+        results.forEach(result -> result.block(Duration.ofSeconds(5)));
+
+        // Then
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/ledger/transfers:batch"))
+                .withHeader("X-Correlation-ID", matching("batch-.+")));
+    }
+
+    private static LedgerTransferRequest request(String transferId) {
+        return LedgerTransferRequest.builder()
+                .transferId(transferId)
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(Money.of(BigDecimal.ONE))
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.transferservice.controller;
+
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.repository.OutboxEventRepository;
+import com.example.transferservice.repository.TransferRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "transfer.outbox.enabled=true")
+@AutoConfigureMockMvc
+class OutboxTransferIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @RegisterExtension
+    static WireMockExtension wireMockServer = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.options().dynamicPort().extensions(new ResponseTemplateTransformer(false)))
+            .build();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("ledger.service.base-url", wireMockServer::baseUrl);
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        transferRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void createTransfer_shouldAcceptAsPendingAndCompleteInBackground() throws Exception {
+        // Given: the ledger applies whatever transfer it is sent
+        wireMockServer.stubFor(WireMock.post("/ledger/transfers:batch")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[{\"transferId\":\"{{jsonPath request.body '$.transfers[0].transferId'}}\",\"outcome\":\"APPLIED\"}]")
+                        .withTransformers("response-template")));
+
+        UUID idempotencyKey = UUID.randomUUID();
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", new BigDecimal("50.00"));
+
+        // When
+        TransferView accepted = postTransfer(idempotencyKey, request);
+
+        // Then: accepted without waiting for the ledger, and completed by the dispatcher
+        assertEquals(TransferStatus.PENDING, accepted.getStatus());
+        for (int i = 0; i < 100 && transferRepository.findById(accepted.getId()).orElseThrow().getStatus() == TransferStatus.PENDING; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(TransferStatus.COMPLETED, transferRepository.findById(accepted.getId()).orElseThrow().getStatus());
+        assertEquals(0, outboxEventRepository.count());
+
+        TransferView replayed = postTransfer(idempotencyKey, request);
+        assertEquals(accepted.getId(), replayed.getId());
+        assertEquals(TransferStatus.COMPLETED, replayed.getStatus());
+        assertEquals(1, transferRepository.count());
+    }
+
+    private TransferView postTransfer(UUID idempotencyKey, Map<String, Object> request) throws Exception {
+        String body = mockMvc.perform(post("/transfers")
+                        .header("Idempotency-Key", idempotencyKey.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, TransferView.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.transferservice.controller;
+
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.repository.TransferRepository;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveTransferControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @RegisterExtension
+    static WireMockExtension wireMockServer = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.options().dynamicPort())
+            .build();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("ledger.service.base-url", wireMockServer::baseUrl);
+        // Generous, so that duplicates on a slow CI machine still see the final response rather than the in-flight state
+        registry.add("transfer.idempotency.in-flight.max-wait", () -> "30s");
+    }
+
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void createTransfer_shouldBeIdempotent() {
+        // Given
+        wireMockServer.stubFor(WireMock.post("/ledger/transfer")
+                .willReturn(aResponse().withStatus(200)));
+
+        UUID idempotencyKey = UUID.randomUUID();
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", 50.00);
+
+        // First call
+        TransferView firstResponse = webTestClient.post().uri("/transfers")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(TransferView.class).returnResult().getResponseBody();
+
+        // Second call
+        TransferView secondResponse = webTestClient.post().uri("/transfers")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(TransferView.class).returnResult().getResponseBody();
+
+        // Then
+        assertEquals(TransferStatus.COMPLETED, firstResponse.getStatus());
+        assertEquals(firstResponse, secondResponse);
+        assertEquals(1, transferRepository.count());
+        wireMockServer.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/ledger/transfer")));
+    }
+
+    @Test
+    void createTransfer_shouldMarkTransferFailed_whenLedgerRejectsIt() {
+        // Given
+        wireMockServer.stubFor(WireMock.post("/ledger/transfer")
+                .willReturn(aResponse().withStatus(400).withBody("Insufficient funds")));
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", 100.00);
+
+        // When & Then
+        webTestClient.post().uri("/transfers")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().jsonPath("$.status").isEqualTo("FAILED");
+    }
+
+    @Test
+    void createTransfer_shouldProcessConcurrentDuplicatesOnce() throws Exception {
+        // Given: a slow ledger, so the duplicates arrive while the first request is still in flight
+        wireMockServer.stubFor(WireMock.post("/ledger/transfer")
+                .willReturn(aResponse().withStatus(200).withFixedDelay(200)));
+
+        int threads = 100;
+        UUID idempotencyKey = UUID.randomUUID();
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", 25.00);
+        WebTestClient client = webTestClient.mutate().responseTimeout(Duration.ofSeconds(60)).build();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransferView>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return client.post().uri("/transfers")
+                            .header("Idempotency-Key", idempotencyKey.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(request)
+                            .exchange()
+                            .expectStatus().isAccepted()
+                            .expectBody(TransferView.class).returnResult().getResponseBody();
+                }));
+            }
+            start.countDown();
+
+            // Then
+            TransferView first = responses.get(0).get();
+            for (Future<TransferView> response : responses) {
+                assertEquals(first, response.get());
+            }
+            assertEquals(TransferStatus.COMPLETED, first.getStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, transferRepository.count());
+        wireMockServer.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/ledger/transfer")));
+    }
+}
@@ -1,30 +1,53 @@
 package com.example.transferservice.controller;
 
+import com.example.transferservice.domain.IdempotencyKey;
+import com.example.transferservice.domain.IdempotencyKeyStatus;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.CreateTransferRequest;
 import com.example.transferservice.repository.IdempotencyKeyRepository;
 import com.example.transferservice.repository.TransferRepository;
+import com.example.transferservice.service.IdempotencyService;
+import com.example.transferservice.service.TransferMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -45,6 +68,15 @@ class TransferControllerIntegrationTest {
     @Autowired
     private IdempotencyKeyRepository idempotencyKeyRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @RegisterExtension
     static WireMockExtension wireMockServer = WireMockExtension.newInstance()
             .options(WireMockConfiguration.options().dynamicPort())
@@ -53,6 +85,8 @@ class TransferControllerIntegrationTest {
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         registry.add("ledger.service.base-url", wireMockServer::baseUrl);
+        // Generous, so that duplicates on a slow CI machine still see the final response rather than the in-flight state
+        registry.add("transfer.idempotency.in-flight.max-wait", () -> "30s");
     }
 
     @BeforeEach
@@ -79,6 +113,7 @@ class TransferControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.status", is("COMPLETED")));
+        assertNotNull(meterRegistry.find("reactor.netty.connection.provider.active.connections").tag("name", "ledger").gauge());
     }
 
     @Test
@@ -113,4 +148,108 @@ class TransferControllerIntegrationTest {
         // Then
         assertEquals(firstResponse, secondResponse);
     }
+
+    @Test
+    void createTransfer_shouldRejectReusedKeyWithDifferentPayload() throws Exception {
+        // Given
+        wireMockServer.stubFor(WireMock.post("/ledger/transfer")
+                .willReturn(aResponse().withStatus(200)));
+
+        UUID idempotencyKey = UUID.randomUUID();
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", 50.00);
+        mockMvc.perform(post("/transfers")
+                        .header("Idempotency-Key", idempotencyKey.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted());
+
+        // When & Then
+        request.put("amount", 60.00);
+        mockMvc.perform(post("/transfers")
+                        .header("Idempotency-Key", idempotencyKey.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createTransfer_shouldProcessConcurrentDuplicatesOnce() throws Exception {
+        // Given: a slow ledger, so the duplicates arrive while the first request is still in flight
+        wireMockServer.stubFor(WireMock.post("/ledger/transfer")
+                .willReturn(aResponse().withStatus(200).withFixedDelay(200)));
+
+        int threads = 100;
+        UUID idempotencyKey = UUID.randomUUID();
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccountId", 1L);
+        request.put("toAccountId", 2L);
+        request.put("amount", 25.00);
+        String body = objectMapper.writeValueAsString(request);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/transfers")
+                                    .header("Idempotency-Key", idempotencyKey.toString())
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andExpect(status().isAccepted())
+                            .andReturn().getResponse().getContentAsString();
+                }));
+            }
+            start.countDown();
+
+            // Then
+            String first = responses.get(0).get();
+            for (Future<String> response : responses) {
+                assertEquals(first, response.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("COMPLETED", objectMapper.readTree(responses.get(0).get()).get("status").asText());
+        assertEquals(1, transferRepository.count());
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/ledger/transfer")));
+    }
+
+    @Test
+    void reserve_shouldFail_whenAnotherRequestCommitsTheKeyAfterTheLookup() {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        UUID winningTransferId = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        String winningFingerprint = IdempotencyService.fingerprint(new CreateTransferRequest(1L, 2L, BigDecimal.ONE));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When: the key is reserved and committed by another request between this request's lookup and its reservation
+        assertThrows(DataIntegrityViolationException.class, () -> transaction.executeWithoutResult(status -> {
+            String fingerprint = IdempotencyService.fingerprint(request);
+            assertTrue(idempotencyService.findReplay(idempotencyKey, fingerprint).isEmpty());
+            concurrentTransaction.executeWithoutResult(concurrent -> idempotencyKeyRepository.save(IdempotencyKey.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .expiryAt(LocalDateTime.now().plusHours(1))
+                    .transferId(winningTransferId)
+                    .status(IdempotencyKeyStatus.IN_PROGRESS)
+                    .requestFingerprint(winningFingerprint)
+                    .newRecord(true)
+                    .build()));
+            idempotencyService.reserve(idempotencyKey, fingerprint, TransferMapper.toTransfer(request, TransferStatus.PROCESSING));
+        }));
+
+        // Then: the other request's reservation is untouched
+        IdempotencyKey stored = idempotencyKeyRepository.findById(idempotencyKey).orElseThrow();
+        assertEquals(winningTransferId, stored.getTransferId());
+        assertEquals(winningFingerprint, stored.getRequestFingerprint());
+        assertEquals(0, transferRepository.count());
+    }
 }
@@ -0,0 +1,104 @@
+package com.example.transferservice.service;
+
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyCompactorTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IdempotencyKeyCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        compactor = new IdempotencyKeyCompactor(idempotencyKeyRepository, TransactionOperations.withoutTransaction(), meterRegistry);
+        ReflectionTestUtils.setField(compactor, "chunkSize", 2);
+        ReflectionTestUtils.setField(compactor, "maxRowsPerRun", 100);
+        ReflectionTestUtils.setField(compactor, "maxRowsPerSecond", 1_000_000);
+    }
+
+    @Test
+    void compact_shouldDeleteInChunksUntilNoExpiredKeysRemain() {
+        // Given: five expired keys, deleted two at a time
+        when(idempotencyKeyRepository.findExpiredKeys(any(), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()))
+                .thenReturn(List.of(UUID.randomUUID()));
+        when(idempotencyKeyRepository.deleteExpired(anyList(), any())).thenReturn(2, 2, 1);
+        when(idempotencyKeyRepository.count()).thenReturn(42L);
+
+        // When
+        int purged = compactor.compact();
+
+        // Then
+        assertEquals(5, purged);
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(anyList(), any());
+        assertEquals(5.0, meterRegistry.get("idempotency.keys.purged").counter().count());
+        assertEquals(42.0, meterRegistry.get("idempotency.keys.rows").gauge().value());
+
+        // A run that purges nothing does not count the table again
+        doReturn(List.of()).when(idempotencyKeyRepository).findExpiredKeys(any(), any());
+        assertEquals(0, compactor.compact());
+        verify(idempotencyKeyRepository, times(1)).count();
+    }
+
+    @Test
+    void compact_shouldStopAtTheRowLimitOfOneRun() {
+        // Given
+        ReflectionTestUtils.setField(compactor, "maxRowsPerRun", 3);
+        when(idempotencyKeyRepository.findExpiredKeys(any(), any()))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()))
+                .thenReturn(List.of(UUID.randomUUID()));
+        when(idempotencyKeyRepository.deleteExpired(anyList(), any())).thenReturn(2, 1);
+
+        // When
+        int purged = compactor.compact();
+
+        // Then: the second chunk is cut down to the one row left in the budget
+        assertEquals(3, purged);
+        verify(idempotencyKeyRepository).findExpiredKeys(any(), eq(PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void compact_shouldStopWhenInterrupted() {
+        // Given: the compactor thread is being shut down
+        Thread.currentThread().interrupt();
+
+        // When
+        int purged;
+        try {
+            purged = compactor.compact();
+        } finally {
+            Thread.interrupted();
+        }
+
+        // Then: no chunk is deleted, so nothing runs without the throttle
+        assertEquals(0, purged);
+        verify(idempotencyKeyRepository, never()).deleteExpired(anyList(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.domain.OutboxEvent;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.repository.OutboxEventRepository;
+import com.example.transferservice.repository.TransferRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private TransferRepository transferRepository;
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private LedgerServiceClient ledgerServiceClient;
+    @Mock
+    private ObjectMapper objectMapper;
+    @Spy
+    private Executor transferBatchExecutor = new SyncTaskExecutor();
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyKeyRepository, transferRepository, objectMapper,
+                Caffeine.newBuilder().build(), transactionOperations);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, transferRepository, idempotencyService, ledgerServiceClient,
+                transferBatchExecutor, transactionOperations);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "parallelism", 4);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void dispatch_shouldRecordOutcomesAndDeleteEvents() {
+        // Given
+        Transfer applied = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PENDING, LocalDateTime.now());
+        Transfer rejected = new Transfer(UUID.randomUUID(), 1L, 3L, Money.of(BigDecimal.TEN), TransferStatus.PENDING, LocalDateTime.now());
+        List<OutboxEvent> events = List.of(
+                new OutboxEvent(1L, applied.getId(), 0, LocalDateTime.now(), LocalDateTime.now()),
+                new OutboxEvent(2L, rejected.getId(), 0, LocalDateTime.now(), LocalDateTime.now()));
+
+        when(outboxEventRepository.findByNextAttemptAtLessThanEqual(any(), any())).thenReturn(events);
+        when(transferRepository.findAllById(anyList())).thenReturn(List.of(applied, rejected));
+        when(ledgerServiceClient.postTransfers(anyList())).thenReturn(Mono.just(List.of(
+                new LedgerTransferResult(applied.getId().toString(), LedgerTransferOutcome.APPLIED),
+                new LedgerTransferResult(rejected.getId().toString(), LedgerTransferOutcome.INSUFFICIENT_FUNDS))));
+
+        // When
+        dispatcher.dispatch();
+
+        // Then
+        assertEquals(TransferStatus.COMPLETED, applied.getStatus());
+        assertEquals(TransferStatus.FAILED, rejected.getStatus());
+        verify(outboxEventRepository).deleteAllInBatch(events);
+        verify(outboxEventRepository).saveAll(List.of());
+    }
+
+    @Test
+    void dispatch_shouldRescheduleEventsWithBackoff_whenLedgerIsUnavailable() {
+        // Given
+        Transfer pending = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PENDING, LocalDateTime.now());
+        OutboxEvent event = new OutboxEvent(1L, pending.getId(), 2, LocalDateTime.now(), LocalDateTime.now());
+
+        when(outboxEventRepository.findByNextAttemptAtLessThanEqual(any(), any())).thenReturn(List.of(event));
+        when(transferRepository.findAllById(anyList())).thenReturn(List.of(pending));
+        when(ledgerServiceClient.postTransfers(anyList())).thenReturn(Mono.error(new LedgerServiceException("unavailable")));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        // Then: third attempt waits between 2 and 4 seconds
+        assertEquals(TransferStatus.PENDING, pending.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertTrue(!event.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        assertTrue(!event.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(4)));
+        verify(outboxEventRepository).saveAll(List.of(event));
+    }
+}
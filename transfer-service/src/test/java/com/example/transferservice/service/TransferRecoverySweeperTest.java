@@ -0,0 +1,107 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.client.LedgerServiceClient;
+import com.example.transferservice.domain.IdempotencyKey;
+import com.example.transferservice.domain.IdempotencyKeyStatus;
+import com.example.transferservice.domain.Transfer;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferResult;
+import com.example.transferservice.exception.LedgerServiceException;
+import com.example.transferservice.repository.IdempotencyKeyRepository;
+import com.example.transferservice.repository.TransferRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferRecoverySweeperTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private LedgerServiceClient ledgerServiceClient;
+    @Mock
+    private ObjectMapper objectMapper;
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    private TransferRecoverySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyKeyRepository, transferRepository, objectMapper,
+                Caffeine.newBuilder().build(), transactionOperations);
+        sweeper = new TransferRecoverySweeper(transferRepository, idempotencyService, ledgerServiceClient, transactionOperations);
+        ReflectionTestUtils.setField(sweeper, "staleAfter", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+    }
+
+    @Test
+    void sweep_shouldResolveStuckTransfersAndCompleteTheirKeys() {
+        // Given
+        Transfer applied = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now().minusMinutes(5));
+        Transfer rejected = new Transfer(UUID.randomUUID(), 1L, 3L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now().minusMinutes(5));
+        IdempotencyKey pendingKey = new IdempotencyKey(UUID.randomUUID(), null, 0, LocalDateTime.now().plusHours(1), applied.getId(),
+                IdempotencyKeyStatus.IN_PROGRESS, null, null, false);
+
+        when(transferRepository.findByStatusAndCreatedAtBefore(eq(TransferStatus.PROCESSING), any(), any()))
+                .thenReturn(List.of(applied, rejected));
+        when(ledgerServiceClient.postTransfers(anyList())).thenReturn(Mono.just(List.of(
+                new LedgerTransferResult(applied.getId().toString(), LedgerTransferOutcome.DUPLICATE),
+                new LedgerTransferResult(rejected.getId().toString(), LedgerTransferOutcome.INSUFFICIENT_FUNDS))));
+        when(idempotencyKeyRepository.findByTransferIdIn(anyCollection())).thenReturn(List.of(pendingKey));
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        assertEquals(TransferStatus.COMPLETED, applied.getStatus());
+        assertEquals(TransferStatus.FAILED, rejected.getStatus());
+        assertEquals(TransferStatus.COMPLETED, TransferViewCodec.decode(pendingKey.getResponseData()).getStatus());
+        verify(idempotencyKeyRepository).save(pendingKey);
+    }
+
+    @Test
+    void sweep_shouldLeaveTransfersProcessing_whenLedgerIsUnavailable() {
+        // Given
+        Transfer stuck = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now().minusMinutes(5));
+
+        when(transferRepository.findByStatusAndCreatedAtBefore(eq(TransferStatus.PROCESSING), any(), any()))
+                .thenReturn(List.of(stuck));
+        when(ledgerServiceClient.postTransfers(anyList())).thenReturn(Mono.error(new LedgerServiceException("unavailable")));
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        assertEquals(TransferStatus.PROCESSING, stuck.getStatus());
+        verify(transferRepository, never()).saveAll(any());
+    }
+}
@@ -1,29 +1,53 @@
 package com.example.transferservice.service;
 
+import com.example.ledger.money.Money;
 import com.example.transferservice.client.LedgerServiceClient;
 import com.example.transferservice.domain.IdempotencyKey;
+import com.example.transferservice.domain.IdempotencyKeyStatus;
 import com.example.transferservice.domain.Transfer;
 import com.example.transferservice.domain.TransferStatus;
 import com.example.transferservice.dto.CreateTransferRequest;
+import com.example.transferservice.dto.LedgerTransferOutcome;
+import com.example.transferservice.dto.LedgerTransferResult;
 import com.example.transferservice.dto.TransferView;
+import com.example.transferservice.exception.IdempotencyKeyConflictException;
+import com.example.transferservice.exception.LedgerOverloadedException;
+import com.example.transferservice.metrics.TransferMetrics;
 import com.example.transferservice.repository.IdempotencyKeyRepository;
 import com.example.transferservice.repository.TransferRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,24 +61,39 @@ class TransferServiceImplTest {
     private LedgerServiceClient ledgerServiceClient;
     @Mock
     private ObjectMapper objectMapper;
+    @Spy
+    private Executor transferBatchExecutor = new SyncTaskExecutor();
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
     private TransferServiceImpl transferService;
 
+    @BeforeEach
+    void setUp() {
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyKeyRepository, transferRepository, objectMapper,
+                Caffeine.newBuilder().build(), transactionOperations);
+        ReflectionTestUtils.setField(idempotencyService, "inFlightPollInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(idempotencyService, "inFlightMaxWait", Duration.ZERO);
+        transferService = new TransferServiceImpl(transferRepository, idempotencyService, ledgerServiceClient,
+                transferBatchExecutor, transactionOperations, new TransferMetrics(meterRegistry));
+        ReflectionTestUtils.setField(transferService, "batchChunkSize", 100);
+    }
+
     @Test
-    void createTransfer_shouldReturnNewTransfer_whenKeyIsNew() throws JsonProcessingException {
+    void createTransfer_shouldReturnNewTransfer_whenKeyIsNew() {
         // Given
         UUID idempotencyKey = UUID.randomUUID();
         CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
-        Transfer savedTransfer = new Transfer(UUID.randomUUID(), 1L, 2L, BigDecimal.TEN, TransferStatus.PROCESSING, LocalDateTime.now());
-        Transfer completedTransfer = new Transfer(savedTransfer.getId(), 1L, 2L, BigDecimal.TEN, TransferStatus.COMPLETED, savedTransfer.getCreatedAt());
-        TransferView expectedView = new TransferView(completedTransfer.getId(), 1L, 2L, BigDecimal.TEN, TransferStatus.COMPLETED, completedTransfer.getCreatedAt());
+        Transfer savedTransfer = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+        Transfer completedTransfer = new Transfer(savedTransfer.getId(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.COMPLETED, savedTransfer.getCreatedAt());
+        TransferView expectedView = new TransferView(completedTransfer.getId(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.COMPLETED, completedTransfer.getCreatedAt());
 
 
-        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.empty());
+        storeReservedKey(idempotencyKey);
         when(transferRepository.save(any(Transfer.class))).thenReturn(savedTransfer, completedTransfer);
         when(ledgerServiceClient.postTransfer(any())).thenReturn(Mono.empty());
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
 
         // When
         TransferView actualView = transferService.createTransfer(idempotencyKey, request);
@@ -62,15 +101,84 @@ class TransferServiceImplTest {
         // Then
         assertEquals(expectedView.getId(), actualView.getId());
         assertEquals(TransferStatus.COMPLETED, actualView.getStatus());
+        assertEquals(1, meterRegistry.get("transfer.outcomes").tag("status", "COMPLETED").counter().count());
+        for (String stage : List.of("idempotency_lookup", "transfer_insert", "outcome_update")) {
+            assertEquals(1, meterRegistry.get(TransferMetrics.STAGE_TIMER).tag("stage", stage).timer().count());
+        }
+    }
+
+    @Test
+    void createTransfer_shouldNotOverwriteKey_thatIsNoLongerReservedForTheTransfer() {
+        // Given: the reservation was released and the key reserved again by another request while the ledger call ran
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        Transfer savedTransfer = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+        IdempotencyKey takenOver = new IdempotencyKey(idempotencyKey, null, 0, LocalDateTime.now().plusHours(1), UUID.randomUUID(),
+                IdempotencyKeyStatus.IN_PROGRESS, IdempotencyService.fingerprint(request), null, false);
+
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.empty()).thenReturn(Optional.of(takenOver));
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).then(returnsFirstArg());
+        when(transferRepository.save(any(Transfer.class))).thenReturn(savedTransfer);
+        when(ledgerServiceClient.postTransfer(any())).thenReturn(Mono.empty());
+
+        // When
+        TransferView actualView = transferService.createTransfer(idempotencyKey, request);
+
+        // Then
+        assertEquals(TransferStatus.COMPLETED, actualView.getStatus());
+        assertEquals(IdempotencyKeyStatus.IN_PROGRESS, takenOver.getStatus());
+        assertNull(takenOver.getResponseData());
+        verify(idempotencyKeyRepository, never()).save(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void createTransfer_shouldReleaseKeyAndRethrow_whenLedgerCallIsShed() {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        Transfer savedTransfer = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).then(returnsFirstArg());
+        when(transferRepository.save(any(Transfer.class))).thenReturn(savedTransfer);
+        when(ledgerServiceClient.postTransfer(any())).thenReturn(Mono.error(new LedgerOverloadedException("overloaded")));
+
+        // When / Then
+        assertThrows(LedgerOverloadedException.class, () -> transferService.createTransfer(idempotencyKey, request));
+        verify(idempotencyKeyRepository).deleteById(idempotencyKey);
+        verify(transferRepository).delete(savedTransfer);
+        assertEquals(1, meterRegistry.get("transfer.errors").tag("exception", "LedgerOverloadedException").counter().count());
+        assertEquals(0, meterRegistry.get("transfer.outcomes").tag("status", "FAILED").counter().count());
     }
 
     @Test
-    void createTransfer_shouldReturnExistingTransfer_whenKeyExists() throws JsonProcessingException {
+    void createTransfer_shouldReturnExistingTransfer_whenKeyExists() {
         // Given
         UUID idempotencyKey = UUID.randomUUID();
         CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
-        TransferView storedView = new TransferView(UUID.randomUUID(), 1L, 2L, BigDecimal.TEN, TransferStatus.COMPLETED, LocalDateTime.now());
-        IdempotencyKey existingKey = new IdempotencyKey(idempotencyKey, "{}", 200, LocalDateTime.now().plusHours(1));
+        TransferView storedView = new TransferView(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.COMPLETED,
+                LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000));
+        IdempotencyKey existingKey = new IdempotencyKey(idempotencyKey, null, 200, LocalDateTime.now().plusHours(1), storedView.getId(),
+                IdempotencyKeyStatus.COMPLETED, IdempotencyService.fingerprint(request), TransferViewCodec.encode(storedView), false);
+
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.of(existingKey));
+
+        // When
+        TransferView actualView = transferService.createTransfer(idempotencyKey, request);
+
+        // Then
+        assertEquals(storedView, actualView);
+        verify(ledgerServiceClient, never()).postTransfer(any());
+    }
+
+    @Test
+    void createTransfer_shouldReplayAndReencodeLegacyJsonResponse() throws JsonProcessingException {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        TransferView storedView = new TransferView(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.COMPLETED, LocalDateTime.now());
+        IdempotencyKey existingKey = new IdempotencyKey(idempotencyKey, "{}", 200, LocalDateTime.now().plusHours(1), storedView.getId(),
+                IdempotencyKeyStatus.COMPLETED, IdempotencyService.fingerprint(request), null, false);
 
         when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.of(existingKey));
         when(objectMapper.readValue("{}", TransferView.class)).thenReturn(storedView);
@@ -80,5 +188,124 @@ class TransferServiceImplTest {
 
         // Then
         assertEquals(storedView, actualView);
+        assertNull(existingKey.getResponseBody());
+        assertEquals(storedView.getId(), TransferViewCodec.decode(existingKey.getResponseData()).getId());
+    }
+
+    @Test
+    void createTransfer_shouldRejectReusedKey_whenPayloadDiffers() {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest original = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        CreateTransferRequest changed = new CreateTransferRequest(1L, 2L, BigDecimal.ONE);
+        IdempotencyKey existingKey = new IdempotencyKey(idempotencyKey, "{}", 200, LocalDateTime.now().plusHours(1), UUID.randomUUID(),
+                IdempotencyKeyStatus.COMPLETED, IdempotencyService.fingerprint(original), null, false);
+
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.of(existingKey));
+
+        // When / Then
+        assertThrows(IdempotencyKeyConflictException.class, () -> transferService.createTransfer(idempotencyKey, changed));
+        verify(ledgerServiceClient, never()).postTransfer(any());
+    }
+
+    @Test
+    void createTransfer_shouldAnswerRetriesFromCache_withoutTouchingTheDatabase() {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        Transfer savedTransfer = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+
+        storeReservedKey(idempotencyKey);
+        when(transferRepository.save(any(Transfer.class))).thenReturn(savedTransfer);
+        when(ledgerServiceClient.postTransfer(any())).thenReturn(Mono.empty());
+        TransferView firstView = transferService.createTransfer(idempotencyKey, request);
+
+        // When
+        TransferView retriedView = transferService.createTransfer(idempotencyKey, request);
+
+        // Then
+        assertEquals(firstView, retriedView);
+        // Read when reserving and when completing the key, but not for the retry
+        verify(idempotencyKeyRepository, times(2)).findById(idempotencyKey);
+        verify(transactionOperations, times(2)).execute(any());
+        verify(ledgerServiceClient, times(1)).postTransfer(any());
+    }
+
+    @Test
+    void createTransfer_shouldReturnCurrentState_whenKeyIsStillBeingProcessed() {
+        // Given
+        UUID idempotencyKey = UUID.randomUUID();
+        CreateTransferRequest request = new CreateTransferRequest(1L, 2L, BigDecimal.TEN);
+        Transfer inFlight = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+        IdempotencyKey reservedKey = new IdempotencyKey(idempotencyKey, null, 0, LocalDateTime.now().plusHours(1), inFlight.getId(),
+                IdempotencyKeyStatus.IN_PROGRESS, IdempotencyService.fingerprint(request), null, false);
+
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenReturn(Optional.of(reservedKey));
+        when(transferRepository.findById(inFlight.getId())).thenReturn(Optional.of(inFlight));
+
+        // When
+        TransferView actualView = transferService.createTransfer(idempotencyKey, request);
+
+        // Then
+        assertEquals(inFlight.getId(), actualView.getId());
+        assertEquals(TransferStatus.PROCESSING, actualView.getStatus());
+        verify(ledgerServiceClient, never()).postTransfer(any());
+    }
+
+    @Test
+    void createBatchTransfers_shouldPostBatchOnceAndMapOutcomes() {
+        // Given
+        List<CreateTransferRequest> requests = List.of(
+                new CreateTransferRequest(1L, 2L, BigDecimal.TEN),
+                new CreateTransferRequest(1L, 3L, BigDecimal.ONE));
+        Transfer first = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+        Transfer second = new Transfer(UUID.randomUUID(), 1L, 3L, Money.of(BigDecimal.ONE), TransferStatus.PROCESSING, LocalDateTime.now());
+
+        when(transferRepository.saveAll(anyList())).thenReturn(List.of(first, second));
+        when(ledgerServiceClient.postTransfers(anyList())).thenReturn(Mono.just(List.of(
+                new LedgerTransferResult(first.getId().toString(), LedgerTransferOutcome.APPLIED),
+                new LedgerTransferResult(second.getId().toString(), LedgerTransferOutcome.ACCOUNT_NOT_FOUND))));
+
+        // When
+        List<TransferView> views = transferService.createBatchTransfers(requests);
+
+        // Then
+        assertEquals(List.of(TransferStatus.COMPLETED, TransferStatus.FAILED),
+                views.stream().map(TransferView::getStatus).toList());
+        verify(ledgerServiceClient, times(1)).postTransfers(anyList());
+    }
+
+    @Test
+    void createBatchTransfers_shouldPostOneLedgerCallPerChunk() {
+        // Given
+        ReflectionTestUtils.setField(transferService, "batchChunkSize", 1);
+        List<CreateTransferRequest> requests = List.of(
+                new CreateTransferRequest(1L, 2L, BigDecimal.TEN),
+                new CreateTransferRequest(1L, 3L, BigDecimal.ONE));
+        Transfer first = new Transfer(UUID.randomUUID(), 1L, 2L, Money.of(BigDecimal.TEN), TransferStatus.PROCESSING, LocalDateTime.now());
+        Transfer second = new Transfer(UUID.randomUUID(), 1L, 3L, Money.of(BigDecimal.ONE), TransferStatus.PROCESSING, LocalDateTime.now());
+
+        when(transferRepository.saveAll(anyList())).thenReturn(List.of(first, second));
+        when(ledgerServiceClient.postTransfers(anyList()))
+                .thenReturn(Mono.just(List.of(new LedgerTransferResult(first.getId().toString(), LedgerTransferOutcome.APPLIED))))
+                .thenReturn(Mono.error(new RuntimeException("Ledger unavailable")));
+
+        // When
+        List<TransferView> views = transferService.createBatchTransfers(requests);
+
+        // Then
+        assertEquals(List.of(TransferStatus.COMPLETED, TransferStatus.FAILED),
+                views.stream().map(TransferView::getStatus).toList());
+        verify(ledgerServiceClient, times(2)).postTransfers(anyList());
+    }
+
+    // Stands in for the table: the key reserved by saveAndFlush is found again when the request completes.
+    private void storeReservedKey(UUID idempotencyKey) {
+        AtomicReference<IdempotencyKey> reserved = new AtomicReference<>();
+        when(idempotencyKeyRepository.findById(idempotencyKey)).thenAnswer(invocation -> Optional.ofNullable(reserved.get()));
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> {
+            reserved.set(invocation.getArgument(0));
+            return reserved.get();
+        });
     }
 }
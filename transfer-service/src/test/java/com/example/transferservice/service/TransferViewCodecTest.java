@@ -0,0 +1,40 @@
+package com.example.transferservice.service;
+
+import com.example.ledger.money.Money;
+import com.example.transferservice.domain.TransferStatus;
+import com.example.transferservice.dto.TransferView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransferViewCodecTest {
+
+    @Test
+    void decode_shouldReturnTheEncodedView() {
+        // Given
+        TransferView view = new TransferView(UUID.randomUUID(), 1L, Long.MAX_VALUE, Money.of(new BigDecimal("-1234567.89")),
+                TransferStatus.FAILED, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+
+        // When
+        byte[] data = TransferViewCodec.encode(view);
+
+        // Then
+        assertEquals(TransferViewCodec.VERSION_1_LENGTH, data.length);
+        assertEquals(view, TransferViewCodec.decode(data));
+    }
+
+    @Test
+    void decode_shouldRejectUnknownVersion() {
+        // Given
+        byte[] data = new byte[TransferViewCodec.VERSION_1_LENGTH];
+        data[0] = 2;
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> TransferViewCodec.decode(data));
+    }
+}